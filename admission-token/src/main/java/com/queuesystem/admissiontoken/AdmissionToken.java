@@ -0,0 +1,9 @@
+package com.queuesystem.admissiontoken;
+
+// 진입 토큰 내용 (시각은 epoch ms)
+public record AdmissionToken(String queue, String userId, long issuedAt, long expiresAt) {
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
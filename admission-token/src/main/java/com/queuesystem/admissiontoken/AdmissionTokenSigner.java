@@ -0,0 +1,14 @@
+package com.queuesystem.admissiontoken;
+
+// 진입 토큰 발급 (대기열 서버에서 사용)
+public class AdmissionTokenSigner {
+    private final TokenFormat format;
+
+    public AdmissionTokenSigner(byte[] secret) {
+        this.format = new TokenFormat(secret);
+    }
+
+    public String sign(AdmissionToken token) {
+        return format.encode(token);
+    }
+}
@@ -0,0 +1,35 @@
+package com.queuesystem.admissiontoken;
+
+import java.util.Optional;
+
+// 진입 토큰 검증 (보호 대상 서비스에서 사용)
+// 서명, 만료 시각, 큐, 폐기 목록을 메모리에서만 확인하므로 요청마다 대기열 서버나 Redis 를 조회하지 않는다.
+public class AdmissionTokenVerifier {
+    private final TokenFormat format;
+    private final RevocationList revocations;
+
+    public AdmissionTokenVerifier(byte[] secret) {
+        this(secret, new RevocationList());
+    }
+
+    public AdmissionTokenVerifier(byte[] secret, RevocationList revocations) {
+        this.format = new TokenFormat(secret);
+        this.revocations = revocations;
+    }
+
+    // 유효하면 토큰 내용, 아니면 empty
+    public Optional<AdmissionToken> verify(String token, String queue) {
+        return verify(token, queue, System.currentTimeMillis());
+    }
+
+    public Optional<AdmissionToken> verify(String token, String queue, long now) {
+        return format.decode(token)
+                .filter(decoded -> decoded.queue().equals(queue))
+                .filter(decoded -> !decoded.isExpired(now))
+                .filter(decoded -> !revocations.isRevoked(decoded));
+    }
+
+    public RevocationList getRevocations() {
+        return revocations;
+    }
+}
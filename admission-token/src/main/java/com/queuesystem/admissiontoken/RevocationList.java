@@ -0,0 +1,32 @@
+package com.queuesystem.admissiontoken;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 강제 로그아웃 등으로 폐기된 사용자 목록
+// 폐기 시각 이전에 발급된 토큰만 무효로 보므로, 다시 진입 허용을 받으면 새 토큰은 유효하다.
+// 대기열 서버의 GET /api/v1/queue/revocations 를 주기적으로 가져와서 revoke 로 채운다.
+public class RevocationList {
+    private final Map<Key, Long> revokedAt = new ConcurrentHashMap<>();
+
+    public void revoke(String queue, String userId, long revokedAt) {
+        this.revokedAt.merge(new Key(queue, userId), revokedAt, Math::max);
+    }
+
+    public boolean isRevoked(AdmissionToken token) {
+        Long revoked = revokedAt.get(new Key(token.queue(), token.userId()));
+        return revoked != null && token.issuedAt() <= revoked;
+    }
+
+    // 토큰 최대 유효 시간보다 오래된 폐기 기록은 더 이상 필요 없다.
+    public void prune(long revokedBefore) {
+        revokedAt.values().removeIf(revoked -> revoked < revokedBefore);
+    }
+
+    public int size() {
+        return revokedAt.size();
+    }
+
+    private record Key(String queue, String userId) {
+    }
+}
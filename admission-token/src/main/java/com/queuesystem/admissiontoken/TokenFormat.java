@@ -0,0 +1,75 @@
+package com.queuesystem.admissiontoken;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+
+// 토큰 형식: v1.<payload>.<signature>
+// payload 는 "queue\nuserId\nissuedAt\nexpiresAt" 의 base64url, signature 는 "v1.<payload>" 의 HMAC-SHA256 base64url
+final class TokenFormat {
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Mac 은 스레드 안전하지 않아서 스레드마다 하나씩 쓴다.
+    private final ThreadLocal<Mac> mac;
+
+    TokenFormat(byte[] secret) {
+        if (secret == null || secret.length < 32) {
+            throw new IllegalArgumentException("Admission token secret must be at least 32 bytes.");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    String encode(AdmissionToken token) {
+        String payload = String.join("\n", token.queue(), token.userId(),
+                String.valueOf(token.issuedAt()), String.valueOf(token.expiresAt()));
+        String signed = VERSION + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signed + "." + ENCODER.encodeToString(sign(signed));
+    }
+
+    // 형식이 틀리거나 서명이 맞지 않으면 empty
+    Optional<AdmissionToken> decode(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0 || !token.startsWith(VERSION + ".")) {
+            return Optional.empty();
+        }
+        String signed = token.substring(0, signatureStart);
+
+        try {
+            byte[] signature = DECODER.decode(token.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, sign(signed))) {
+                return Optional.empty();
+            }
+            String payload = new String(DECODER.decode(signed.substring(VERSION.length() + 1)), StandardCharsets.UTF_8);
+            String[] fields = payload.split("\n", -1);
+            if (fields.length != 4) {
+                return Optional.empty();
+            }
+            return Optional.of(new AdmissionToken(fields[0], fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String signed) {
+        return mac.get().doFinal(signed.getBytes(StandardCharsets.UTF_8));
+    }
+}
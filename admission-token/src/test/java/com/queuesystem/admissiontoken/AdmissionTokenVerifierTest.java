@@ -0,0 +1,42 @@
+package com.queuesystem.admissiontoken;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionTokenVerifierTest {
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final AdmissionTokenSigner signer = new AdmissionTokenSigner(SECRET);
+    private final AdmissionTokenVerifier verifier = new AdmissionTokenVerifier(SECRET);
+
+    @Test
+    void verifiesSignedToken() {
+        AdmissionToken token = new AdmissionToken("default", "100", 1_000, 2_000);
+
+        assertEquals(token, verifier.verify(signer.sign(token), "default", 1_500).orElseThrow());
+    }
+
+    @Test
+    void rejectsExpiredOtherQueueAndTamperedToken() {
+        String token = signer.sign(new AdmissionToken("default", "100", 1_000, 2_000));
+        String forged = new AdmissionTokenSigner("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8))
+                .sign(new AdmissionToken("default", "100", 1_000, 2_000));
+
+        assertTrue(verifier.verify(token, "default", 2_000).isEmpty());
+        assertTrue(verifier.verify(token, "other", 1_500).isEmpty());
+        assertTrue(verifier.verify(forged, "default", 1_500).isEmpty());
+        assertTrue(verifier.verify(token.substring(0, token.length() - 2), "default", 1_500).isEmpty());
+    }
+
+    @Test
+    void rejectsTokensIssuedBeforeRevocation() {
+        verifier.getRevocations().revoke("default", "100", 1_200);
+
+        assertTrue(verifier.verify(signer.sign(new AdmissionToken("default", "100", 1_000, 2_000)), "default", 1_500).isEmpty());
+        assertTrue(verifier.verify(signer.sign(new AdmissionToken("default", "100", 1_300, 2_000)), "default", 1_500).isPresent());
+    }
+}
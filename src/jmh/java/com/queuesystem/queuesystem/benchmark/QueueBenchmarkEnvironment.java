@@ -0,0 +1,74 @@
+package com.queuesystem.queuesystem.benchmark;
+
+import com.queuesystem.queuesystem.QueueSystemApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// 벤치마크/부하 측정용 실행 환경 (임베디드 Redis + 애플리케이션 컨텍스트)
+// 테스트의 EmbeddedRedis 와 같은 방식이며, 테스트와 동시에 돌아도 겹치지 않도록 다른 포트를 쓴다.
+// heartbeat 타임아웃을 길게 둬서 측정 중에 미리 넣어 둔 대기자가 정리되지 않게 한다.
+public class QueueBenchmarkEnvironment implements AutoCloseable {
+    private static final int REDIS_PORT = 63791;
+
+    private final RedisServer redisServer;
+    private final ConfigurableApplicationContext context;
+
+    private QueueBenchmarkEnvironment(RedisServer redisServer, ConfigurableApplicationContext context) {
+        this.redisServer = redisServer;
+        this.context = context;
+    }
+
+    // web 이 true 면 임의 포트로 HTTP 서버까지 띄운다.
+    public static QueueBenchmarkEnvironment start(boolean web) {
+        try {
+            RedisServer redisServer = new RedisServer(REDIS_PORT);
+            redisServer.start();
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(QueueSystemApplication.class)
+                    .web(web ? WebApplicationType.REACTIVE : WebApplicationType.NONE)
+                    .properties(
+                            "server.port=0",
+                            "spring.data.redis.host=localhost",
+                            "spring.data.redis.port=" + REDIS_PORT,
+                            "queue.heartbeat-timeout=1h",
+                            // 가상 사용자가 모두 같은 IP 에서 호출하므로 요청 수 제한은 끈다.
+                            "queue.rate-limit.enabled=false",
+                            "logging.level.root=warn")
+                    .run();
+
+            QueueBenchmarkEnvironment environment = new QueueBenchmarkEnvironment(redisServer, context);
+            environment.flushAll();
+            return environment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public void flushAll() {
+        context.getBean(ReactiveStringRedisTemplate.class).execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    @Override
+    public void close() {
+        try {
+            context.close();
+            redisServer.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.queuesystem.queuesystem.benchmark;
+
+import com.queuesystem.queuesystem.service.UserQueueService;
+import com.queuesystem.queuesystem.utils.QueueKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+// 대기열 주요 연산 처리량 (임베디드 Redis)
+// ./gradlew jmh 로 실행
+// 스레드마다 응답을 기다리는 방식이라 동시 요청 수는 @Threads 값과 같다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+public class UserQueueBenchmark {
+    private static final String REGISTER_QUEUE = "jmh-register";
+    private static final String RANK_QUEUE = "jmh-rank";
+    private static final String ALLOW_QUEUE = "jmh-allow";
+    private static final int RANK_USERS = 10_000;
+    // 한 번의 측정 구간에서 비지 않을 만큼 미리 채워 둔다.
+    private static final int ALLOW_USERS = 1_000_000;
+    private static final long ALLOW_COUNT = 10;
+
+    private final AtomicLong registerSequence = new AtomicLong();
+    private final AtomicLong allowSequence = new AtomicLong();
+    private QueueBenchmarkEnvironment environment;
+    private UserQueueService userQueueService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = QueueBenchmarkEnvironment.start(false);
+        userQueueService = environment.getBean(UserQueueService.class);
+
+        Flux.range(0, RANK_USERS)
+                .flatMap(i -> userQueueService.registerWaitQueue(RANK_QUEUE, String.valueOf(i)), 64)
+                .blockLast();
+    }
+
+    // allowUser 는 대기열을 비우므로 측정 구간마다 새로 채운다. (등록 경로를 거치지 않고 대기열에 바로 추가)
+    @Setup(Level.Iteration)
+    public void fillAllowQueue() {
+        ReactiveStringRedisTemplate reactiveRedisTemplate = environment.getBean(ReactiveStringRedisTemplate.class);
+        QueueKeys queueKeys = environment.getBean(QueueKeys.class);
+        String waitKey = queueKeys.shards(ALLOW_QUEUE).get(0).waitKey();
+        long start = allowSequence.getAndAdd(ALLOW_USERS);
+
+        reactiveRedisTemplate.delete(waitKey).block();
+        Flux.fromStream(LongStream.range(start, start + ALLOW_USERS).boxed())
+                .buffer(10_000)
+                .concatMap(users -> reactiveRedisTemplate.opsForZSet().addAll(waitKey, tuples(users)))
+                .blockLast();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public Long register() {
+        return userQueueService.registerWaitQueue(REGISTER_QUEUE, String.valueOf(registerSequence.incrementAndGet())).block();
+    }
+
+    @Benchmark
+    public Long rank() {
+        return userQueueService.getRank(RANK_QUEUE, randomRankUser()).block();
+    }
+
+    @Benchmark
+    public List<String> allowUser() {
+        return userQueueService.allowUser(ALLOW_QUEUE, ALLOW_COUNT).block();
+    }
+
+    @Benchmark
+    public Boolean heartbeat() {
+        return userQueueService.updateHeartbeat(RANK_QUEUE, randomRankUser()).block();
+    }
+
+    private String randomRankUser() {
+        return String.valueOf(ThreadLocalRandom.current().nextInt(RANK_USERS));
+    }
+
+    private Set<ZSetOperations.TypedTuple<String>> tuples(List<Long> users) {
+        return users.stream()
+                .map(user -> (ZSetOperations.TypedTuple<String>) new DefaultTypedTuple<>(String.valueOf(user), (double) user))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,43 @@
+package com.queuesystem.queuesystem.load;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 엔드포인트 하나의 응답 시간 기록
+// 측정 규모(클라이언트 수 x 폴링 횟수)가 메모리에 다 들어가므로 원본 값을 모아 두고 마지막에 정렬해서 백분위를 구한다.
+class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int size;
+    private final AtomicLong errors = new AtomicLong();
+
+    synchronized void record(long nanos) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+    }
+
+    void error() {
+        errors.incrementAndGet();
+    }
+
+    synchronized Summary summarize(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+
+        return new Summary(size, errors.get(), size / elapsedSeconds,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    record Summary(long requests, long errors, double requestsPerSecond, double p50Millis, double p99Millis, double maxMillis) {
+    }
+}
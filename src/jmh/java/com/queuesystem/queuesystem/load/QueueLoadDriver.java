@@ -0,0 +1,148 @@
+package com.queuesystem.queuesystem.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.queuesystem.queuesystem.benchmark.QueueBenchmarkEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 대기실 부하 측정
+// 클라이언트 N 명이 등록 후 pollInterval 마다 순번/진입 허용 여부를 조회하고, 진입이 허용되면 빠진다.
+// 엔드포인트별 p50/p99 응답 시간과 초당 요청 수를 JSON 으로 남겨서 커밋 간 결과를 비교할 수 있게 한다.
+//
+// 설정 (시스템 프로퍼티)
+//   load.base-url      측정 대상 (없으면 임베디드 Redis 와 애플리케이션을 직접 띄움)
+//   load.clients       동시 클라이언트 수 (기본 500)
+//   load.duration      측정 시간 (기본 PT30S)
+//   load.poll-interval 클라이언트별 조회 주기 (기본 PT1S)
+//   load.queue         대기열 이름 (기본 load)
+//   load.label         결과에 함께 남길 이름 (예: 커밋 해시)
+//   load.output        결과 파일 (기본 build/results/load/result.json)
+public class QueueLoadDriver {
+    private static final String QUEUE_API = "/api/v1/queue";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String queue;
+    private final Duration pollInterval;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final LatencyRecorder total = new LatencyRecorder();
+
+    QueueLoadDriver(String baseUrl, int clients, String queue, Duration pollInterval) {
+        this.httpClient = HttpClient.create(ConnectionProvider.builder("load")
+                        .maxConnections(clients)
+                        .pendingAcquireMaxCount(-1)
+                        .build())
+                .baseUrl(baseUrl);
+        this.queue = queue;
+        this.pollInterval = pollInterval;
+        for (String endpoint : new String[]{"register", "rank", "allowed"}) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String baseUrl = System.getProperty("load.base-url");
+        int clients = Integer.getInteger("load.clients", 500);
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        Duration pollInterval = Duration.parse(System.getProperty("load.poll-interval", "PT1S"));
+        String queue = System.getProperty("load.queue", "load");
+        File output = new File(System.getProperty("load.output", "build/results/load/result.json"));
+
+        QueueBenchmarkEnvironment environment = baseUrl == null ? QueueBenchmarkEnvironment.start(true) : null;
+        try {
+            String target = environment == null ? baseUrl : "http://localhost:" + environment.port();
+            QueueLoadDriver driver = new QueueLoadDriver(target, clients, queue, pollInterval);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("label", System.getProperty("load.label", ""));
+            result.put("timestamp", Instant.now().toString());
+            result.put("target", target);
+            result.put("clients", clients);
+            result.put("durationSeconds", duration.toSeconds());
+            result.put("pollIntervalMillis", pollInterval.toMillis());
+            result.putAll(driver.run(clients, duration));
+
+            output.getParentFile().mkdirs();
+            driver.objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, result);
+            System.out.println(driver.objectMapper.writeValueAsString(result));
+        } finally {
+            if (environment != null) {
+                environment.close();
+            }
+        }
+    }
+
+    Map<String, Object> run(int clients, Duration duration) {
+        long start = System.nanoTime();
+        Flux.range(0, clients)
+                .flatMap(index -> client(runId + "-" + index), clients)
+                .take(duration)
+                .blockLast();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        recorders.forEach((endpoint, recorder) -> endpoints.put(endpoint, recorder.summarize(elapsedSeconds)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("elapsedSeconds", elapsedSeconds);
+        result.put("total", total.summarize(elapsedSeconds));
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    // 등록 -> (순번 조회, 진입 허용 조회) 반복 -> 허용되면 종료
+    // 첫 조회 시점을 흩어서 모든 클라이언트가 같은 순간에 몰리지 않게 한다.
+    private Mono<Void> client(String userId) {
+        Duration jitter = Duration.ofMillis(ThreadLocalRandom.current().nextLong(Math.max(pollInterval.toMillis(), 1)));
+        String params = "?queue=" + queue + "&user_id=" + userId;
+
+        return call("register", httpClient.post().uri(QUEUE_API + params))
+                .thenMany(Flux.interval(jitter, pollInterval)
+                        .concatMap(tick -> call("rank", httpClient.get().uri(QUEUE_API + "/rank" + params))
+                                .then(call("allowed", httpClient.get().uri(QUEUE_API + "/allowed" + params))))
+                        .takeUntil(this::isAllowed))
+                .then();
+    }
+
+    private Mono<String> call(String endpoint, HttpClient.ResponseReceiver<?> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.responseSingle((response, body) -> body.asString()
+                            .defaultIfEmpty("")
+                            .flatMap(content -> response.status().code() < 400
+                                    ? Mono.just(content)
+                                    : Mono.error(new IllegalStateException(response.status().toString()))))
+                    .doOnSuccess(content -> {
+                        long elapsed = System.nanoTime() - start;
+                        recorders.get(endpoint).record(elapsed);
+                        total.record(elapsed);
+                    })
+                    .onErrorResume(e -> {
+                        recorders.get(endpoint).error();
+                        total.error();
+                        return Mono.just("");
+                    });
+        });
+    }
+
+    private boolean isAllowed(String body) {
+        try {
+            return !body.isEmpty() && objectMapper.readTree(body).path("allowed").asBoolean();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.queuesystem.queuesystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue")
+public class QueueProperties {
+    private Duration proceedTtl = Duration.ofMinutes(10); // 진입 허용 후 유효 시간 (사용자별)
+    private int reapBatchSize = 500;                      // 한 번에 정리하는 만료 사용자 수
+    private Duration heartbeatTimeout = Duration.ofSeconds(15); // 이 시간 동안 heartbeat 가 없으면 대기열에서 제거
+    private Duration statusResyncInterval = Duration.ofSeconds(30); // 스트림 연결의 순번을 Redis 와 다시 맞추는 주기
+    private Scheduler scheduler = new Scheduler();
+    private Leader leader = new Leader();
+    private Admission admission = new Admission();
+    private Sharding sharding = new Sharding();
+    private Rank rank = new Rank();
+    private AllowedCache allowedCache = new AllowedCache();
+    private Metrics metrics = new Metrics();
+    private Bulk bulk = new Bulk();
+    private Map<String, Lane> lanes = new HashMap<>();     // 우선순위 레인 (레인 이름 -> 설정)
+    private String requeueLane = "retry";                  // 진입 후 실패해서 다시 줄을 서는 사용자의 레인
+    private Token token = new Token();
+    private Journal journal = new Journal();
+    private RateLimit rateLimit = new RateLimit();
+    private Stats stats = new Stats();
+    private Lease lease = new Lease();
+    private Internal internal = new Internal();
+
+    @Getter
+    @Setter
+    public static class Scheduler {
+        private int concurrency = 16;                      // 동시에 처리하는 큐 수
+        private Duration tickTimeout = Duration.ofSeconds(10); // 한 번의 실행이 이 시간을 넘기면 중단
+        private int threads = 4;                           // 스케줄 작업 전용 스레드 수 (virtualThreads 면 작업 처리의 동시 실행 수)
+        private boolean virtualThreads = false;            // 가상 스레드 사용 (JDK 21 이상)
+    }
+
+    @Getter
+    @Setter
+    public static class Leader {
+        private boolean enabled = true;                    // false 면 모든 인스턴스가 스케줄러를 실행 (단일 인스턴스용)
+        private Duration leaseTtl = Duration.ofSeconds(2); // 리더가 사라졌을 때 이 시간 안에 다른 인스턴스가 이어받음
+        private Duration renewInterval = Duration.ofMillis(500); // lease 획득/연장 주기
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+        private RateControl defaults = new RateControl();
+        private Map<String, RateControl> queues = new HashMap<>(); // 큐별 설정 (없으면 defaults)
+        private FairShare fairShare = new FairShare();
+        private int maxQueues = 1000;                      // 인스턴스마다 보관하는 큐별 속도 조절 상태의 최대 개수
+        private Duration idleTimeout = Duration.ofMinutes(10); // 이 시간 동안 쓰이지 않은 큐의 속도 조절 상태는 지운다.
+
+        public RateControl forQueue(String queue) {
+            return queues.getOrDefault(queue, defaults);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class FairShare {
+        private boolean enabled = false; // 켜면 큐별 허용 인원을 전체 허용 속도 안에서 대기 인원 x weight 비율로 나눔
+        private double rate = 100;       // 모든 큐를 합친 초당 허용 인원
+        private double burst = 300;      // 모든 큐를 합쳐 한 번에 허용할 수 있는 최대 인원
+    }
+
+    @Getter
+    @Setter
+    public static class RateControl {
+        private Strategy strategy = Strategy.TOKEN_BUCKET;
+        private double rate = 3;                 // 초당 허용 인원 (token-bucket, aimd 의 시작 값)
+        private double burst = 10;               // 한 번에 허용할 수 있는 최대 인원 (token-bucket, aimd)
+        private double minRate = 1;              // aimd 최소 속도
+        private double maxRate = 100;            // aimd 최대 속도
+        private double increaseStep = 1;         // aimd 정상일 때 올리는 폭
+        private double decreaseFactor = 0.5;     // aimd 과부하일 때 곱하는 값
+        private Duration latencyThreshold = Duration.ofMillis(500); // aimd 과부하 판단 응답 지연
+        private double errorRateThreshold = 0.05; // aimd 과부하 판단 에러율
+        private long targetProceeding = 100;     // concurrency 유지할 진입 허용 인원
+        private long maxPerTick = 1000;          // concurrency 한 번에 허용할 최대 인원
+        private double weight = 1;               // fair-share 가중치
+
+        public enum Strategy {
+            TOKEN_BUCKET, AIMD, CONCURRENCY
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Sharding {
+        private int shards = 1;                               // 기본 샤드 수 (1 이면 샤딩하지 않음)
+        private Map<String, Integer> queues = new HashMap<>(); // 큐별 샤드 수
+
+        public int shardsOf(String queue) {
+            return Math.max(1, queues.getOrDefault(queue, shards));
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Rank {
+        private Mode mode = Mode.EXACT;
+        private long exactThreshold = 1000;       // approximate 모드에서도 이 순번 이내는 정확한 순번으로 조회
+        private long maxCachedUsers = 1_000_000;  // 메모리에 보관하는 등록 순번 최대 개수
+        private int maxQueues = 1000;             // 메모리에 진행 상황을 보관하는 최대 큐 수 (approximate 모드)
+
+        public enum Mode {
+            EXACT, APPROXIMATE
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class AllowedCache {
+        private boolean enabled = true;
+        private long maxSize = 100_000;                      // 최대 보관 사용자 수
+        private Duration ttl = Duration.ofSeconds(30);       // 허용된 사용자 최대 보관 시간
+        private Duration negativeTtl = Duration.ofSeconds(1); // 허용되지 않은 사용자 보관 시간
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        private int maxTaggedQueues = 100; // 큐 태그를 붙이는 최대 큐 수 (메트릭 cardinality 제한)
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        private int chunkSize = 500; // 일괄 요청을 나눠서 Redis 로 한꺼번에 보내는 단위
+    }
+
+    @Getter
+    @Setter
+    public static class Lane {
+        private Duration headStart = Duration.ZERO; // 등록 시각을 이만큼 앞당겨서 줄을 세움
+    }
+
+    @Getter
+    @Setter
+    public static class Token {
+        private String secret = ""; // 진입 토큰 서명 키 (32 바이트 이상, 비어 있으면 토큰을 발급하지 않음)
+    }
+
+    @Getter
+    @Setter
+    public static class Journal {
+        private boolean enabled = false;                        // 대기열 이벤트를 로컬 파일에 기록 (Redis 유실 시 복구용)
+        private String directory = "data/journal";              // 인스턴스별 하위 디렉터리에 segment 파일, snapshots 에 스냅샷
+        private DataSize segmentSize = DataSize.ofMegabytes(64); // segment 파일 하나의 크기
+        private int bufferSize = 65_536;                        // 기록 대기 이벤트 수 (넘치면 버림)
+        private int batchSize = 4096;                           // 한 번에 기록하는 이벤트 수
+        private Duration snapshotInterval = Duration.ofMinutes(1); // 리더가 Redis 상태를 스냅샷으로 남기는 주기
+        private Duration replayMargin = Duration.ofSeconds(10);  // 스냅샷 시각보다 이만큼 이전 이벤트부터 다시 적용
+        private boolean recoverOnStartup = true;                // 기동 시 Redis 가 비어 있으면 복구
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private boolean enabled = true;
+        private Duration window = Duration.ofSeconds(10);          // 요청 수를 세는 슬라이딩 윈도우 길이
+        private long maxTrackedKeys = 500_000;                     // 메모리에 보관하는 사용자/IP 카운터 최대 개수
+        private Duration rankCoalesceWindow = Duration.ofMillis(500); // 같은 사용자의 순번 조회를 Redis 한 번으로 합치는 시간 (0 이면 끔)
+        private Map<String, Endpoint> endpoints = new HashMap<>(); // 제한할 API (이름 -> 설정)
+    }
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private String path;          // 요청 경로 (정확히 일치)
+        private long perUser = 0;     // 윈도우 안에서 사용자(user_id)별 최대 요청 수 (0 이면 제한 없음)
+        private long perIp = 0;       // 윈도우 안에서 IP 별 최대 요청 수 (0 이면 제한 없음)
+        private long globalPerUser = 0; // 모든 인스턴스를 합친 사용자별 최대 요청 수 (Redis 사용, 0 이면 끔)
+        private UserIdSource userIdFrom = UserIdSource.QUERY; // 사용자 ID 를 읽는 곳 (API 가 사용자를 정하는 곳과 같아야 함)
+
+        public enum UserIdSource {
+            QUERY, // user_id 쿼리
+            BODY   // JSON 본문의 userId
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Stats {
+        private boolean enabled = true;
+        private Duration retention = Duration.ofHours(24); // Redis 에 분 단위 합계를 보관하는 기간
+        private int maxQueues = 1000;                      // 인스턴스마다 세는 최대 큐 수
+    }
+
+    @Getter
+    @Setter
+    public static class Lease {
+        private boolean enabled = false;                  // 켜면 lease 를 갱신하지 않는 진입 허용 사용자의 자리를 회수 (보호 대상 서비스가 /lease 를 호출해야 함)
+        private Duration timeout = Duration.ofSeconds(30); // 이 시간 동안 lease 갱신이 없으면 자리를 회수
+        private Duration refillDelay = Duration.ofMillis(200); // 반납/회수된 자리를 모아서 다시 채우기까지 기다리는 시간
+    }
+
+    @Getter
+    @Setter
+    public static class Internal {
+        private String apiKey = "";                       // 내부 API 호출 키 (X-Queue-Api-Key 헤더, 비어 있으면 내부 API 를 모두 거절)
+        private List<String> paths = new ArrayList<>(List.of("/api/v1/queue/recover", "/api/v1/queue/lane",
+                "/api/v1/queue/requeue", "/api/v1/queue/feedback")); // 내부 API 경로 (정확히 일치)
+    }
+}
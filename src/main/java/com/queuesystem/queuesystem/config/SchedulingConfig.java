@@ -0,0 +1,53 @@
+package com.queuesystem.queuesystem.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// 진입 허용/정리 등 배치 작업 전용 스레드
+// @Scheduled 작업과, 그 작업의 Redis 응답 이후 처리(허용 인원 계산 등)를 모두 여기서 실행해서
+// 사용자 요청을 처리하는 Netty event loop 와 스레드를 나눠 쓰지 않는다. (Redis I/O 자체는 Lettuce event loop)
+// 작업은 Lettuce event loop 에서도 넘겨지므로, 넘기는 쪽을 기다리게 하는 실행기(동시 실행 수 제한 등)는 쓰지 않는다.
+@Configuration
+public class SchedulingConfig {
+    // AdmissionScheduler 컴포넌트와 빈 이름이 겹치지 않게 한다.
+    public static final String ADMISSION_REACTOR_SCHEDULER = "admissionReactorScheduler";
+    private static final String THREAD_NAME_PREFIX = "queue-scheduler-";
+    private static final int VIRTUAL_THREAD_TTL_SECONDS = 60;
+
+    // 이름이 taskScheduler 인 빈을 @EnableScheduling 이 사용한다. (spring.task.scheduling 설정은 쓰지 않음)
+    // @Scheduled 작업은 구독만 하고 바로 끝나므로 가상 스레드 모드에서는 동시 실행 수를 제한하지 않는다.
+    @Bean
+    public TaskScheduler taskScheduler(QueueProperties queueProperties) {
+        QueueProperties.Scheduler properties = queueProperties.getScheduler();
+        if (properties.isVirtualThreads()) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+            return scheduler;
+        }
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.getThreads());
+        scheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return scheduler;
+    }
+
+    // 스레드 풀은 작업 큐가 제한 없이 받아 주므로 그대로 쓴다. (timeout/interval 같은 지연 실행이 되도록 ScheduledExecutorService 로 감싼다.)
+    // 가상 스레드는 threads 개까지 동시에 실행하고 나머지는 큐에 쌓는 bounded elastic 으로 감싼다. (넘기는 쪽은 기다리지 않음)
+    @Bean(name = ADMISSION_REACTOR_SCHEDULER, destroyMethod = "dispose")
+    public Scheduler admissionReactorScheduler(QueueProperties queueProperties, TaskScheduler taskScheduler) {
+        QueueProperties.Scheduler properties = queueProperties.getScheduler();
+        if (properties.isVirtualThreads()) {
+            return Schedulers.newBoundedElastic(properties.getThreads(), Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+                    new VirtualThreadTaskExecutor(THREAD_NAME_PREFIX).getVirtualThreadFactory(), VIRTUAL_THREAD_TTL_SECONDS);
+        }
+        return Schedulers.fromExecutorService(((ThreadPoolTaskScheduler) taskScheduler).getScheduledExecutor());
+    }
+}
@@ -1,20 +1,44 @@
 package com.queuesystem.queuesystem.controller;
 
 import com.queuesystem.queuesystem.dto.*;
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.journal.QueueStateRecovery;
+import com.queuesystem.queuesystem.service.AdmissionTokenService;
+import com.queuesystem.queuesystem.service.BulkQueueService;
+import com.queuesystem.queuesystem.service.QueueEventBus;
+import com.queuesystem.queuesystem.service.QueueStatusService;
+import com.queuesystem.queuesystem.service.RankEstimator;
 import com.queuesystem.queuesystem.service.UserQueueService;
+import com.queuesystem.queuesystem.stats.QueueStatsService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @RestController
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 @RequestMapping("/api/v1/queue")
 public class UserQueueController {
+    private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(15);
 
     private final UserQueueService userQueueService;
+    private final QueueStatusService queueStatusService;
+    private final QueueEventBus queueEventBus;
+    private final RankEstimator rankEstimator;
+    private final BulkQueueService bulkQueueService;
+    private final AdmissionTokenService admissionTokenService;
+    private final QueueProperties queueProperties;
+    private final QueueStateRecovery queueStateRecovery;
+    private final QueueStatsService queueStatsService;
 
+    // 누구나 호출하므로 레인은 받지 않는다. (lane 파라미터를 보내도 일반 대기)
     @PostMapping("")
     public Mono<RegisterUserResponse> registerUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
                                                    @RequestParam(name = "user_id") String userId) {
@@ -22,40 +46,151 @@ public class UserQueueController {
                 .map(RegisterUserResponse::new);
     }
 
+    // 우선순위 레인으로 등록 (보호 대상 서비스가 사용자 등급을 확인한 뒤 호출하는 내부 API)
+    // lane: queue.lanes 에 설정된 이름
+    @PostMapping("/lane")
+    public Mono<RegisterUserResponse> registerLaneUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                       @RequestParam(name = "user_id") String userId,
+                                                       @RequestParam(name = "lane") String lane) {
+        return userQueueService.registerWaitQueue(queue, userId, lane)
+                .map(RegisterUserResponse::new);
+    }
+
+    // 진입 허용 후 처리에 실패한 사용자를 retry 레인으로 다시 줄 세움 (보호 대상 서비스가 호출하는 내부 API)
+    @PostMapping("/requeue")
+    public Mono<RequeueUser> requeueUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                         @RequestParam(name = "user_id") String userId) {
+        return userQueueService.requeueUser(queue, userId)
+                .map(RequeueUser::new);
+    }
+
+    // 일괄 등록 (요청/응답 모두 NDJSON, 사용자별 결과를 입력 순서대로 스트리밍)
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkRegisterResponse> registerUsers(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                    @RequestBody Flux<BulkUserRequest> requests) {
+        return bulkQueueService.registerWaitQueue(queue, userIds(requests));
+    }
+
+    @PostMapping(value = "/bulk/allowed", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkAllowedResponse> isAllowedUsers(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                    @RequestBody Flux<BulkUserRequest> requests) {
+        return bulkQueueService.isAllowed(queue, userIds(requests));
+    }
+
+    @PostMapping(value = "/bulk/rank", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkRankResponse> getRankUsers(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                               @RequestBody Flux<BulkUserRequest> requests) {
+        return bulkQueueService.getRank(queue, userIds(requests));
+    }
+
     @PostMapping("/allow")
     public Mono<AllowUserResponse> allowUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
                                              @RequestParam(name = "count") Long count){
         return userQueueService.allowUser(queue, count)
-                .map(allowedUser -> new AllowUserResponse(count, allowedUser));
+                .map(allowedUsers -> new AllowUserResponse(count, (long) allowedUsers.size(), allowedUsers,
+                        admissionTokenService.issueAll(queue, allowedUsers, System.currentTimeMillis() + queueProperties.getProceedTtl().toMillis())));
     }
 
     @GetMapping("/allowed")
     public Mono<AllowedUserResponse> isAllowedUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
                                                    @RequestParam(name = "user_id") String userId) {
-        return userQueueService.isAllowed(queue, userId)
-                .map(AllowedUserResponse::new);
+        return userQueueService.getAllowedUntil(queue, userId)
+                .map(allowedUntil -> new AllowedUserResponse(true, admissionTokenService.issue(queue, userId, allowedUntil)))
+                .defaultIfEmpty(AllowedUserResponse.notAllowed());
+    }
+
+    // 강제 로그아웃 (진입 허용 취소 + 발급된 진입 토큰 폐기)
+    @PostMapping("/revoke")
+    public Mono<ResponseEntity<Void>> revokeUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                 @RequestParam(name = "user_id") String userId) {
+        return userQueueService.revokeUser(queue, userId)
+                .thenReturn(ResponseEntity.ok().build());
+    }
+
+    // 진입한 사용자가 이용을 마치고 자리를 반납 (발급된 진입 토큰 폐기, 빈자리는 바로 다음 대기자로 채움)
+    @PostMapping("/release")
+    public Mono<ReleaseUserResponse> releaseUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                 @RequestParam(name = "user_id") String userId) {
+        return userQueueService.releaseUser(queue, userId)
+                .map(ReleaseUserResponse::new);
+    }
+
+    // 진입한 사용자가 아직 이용 중임을 알림 (queue.lease.enabled 면 lease.timeout 안에 반복 호출해야 자리가 유지됨)
+    @PostMapping("/lease")
+    public Mono<LeaseResponse> renewLease(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                          @RequestParam(name = "user_id") String userId) {
+        return userQueueService.renewLease(queue, userId)
+                .map(LeaseResponse::new);
+    }
+
+    // since(ms) 이후에 폐기된 사용자 목록 (보호 대상 서비스가 주기적으로 가져가서 RevocationList 에 반영)
+    @GetMapping("/revocations")
+    public Flux<RevocationResponse> revocations(@RequestParam(name = "since", defaultValue = "0") Long since) {
+        return admissionTokenService.revocations(since);
+    }
+
+    // 스냅샷 + journal 로 Redis 대기열 상태 복구 (Redis 유실 후 수동 실행용, 내부 API 키 필요)
+    @PostMapping("/recover")
+    public Mono<RecoveryResponse> recover() {
+        return queueStateRecovery.recoverManually();
+    }
+
+    // 최근 minutes 분 동안의 처리량/대기 인원 추이, rank 를 주면 예상 대기 시간
+    @GetMapping("/stats")
+    public Mono<QueueStatsResponse> getStats(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                             @RequestParam(name = "rank", required = false) Long rank,
+                                             @RequestParam(name = "minutes", defaultValue = "15") Long minutes) {
+        return queueStatsService.getStats(queue, rank, minutes);
     }
 
     @GetMapping("/rank")
     public Mono<RankNumberResponse> getRankUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
                                                 @RequestParam(name = "user_id") String userId) {
         return userQueueService.getRank(queue, userId)
-                .map(RankNumberResponse::new);
+                .map(rank -> new RankNumberResponse(rank, rankEstimator.expectedWaitSeconds(queue, rank)));
+    }
+
+    // 대기 순번/진입 허용 상태를 SSE 로 전달 (연결이 유지되는 동안 heartbeat 는 서버가 갱신)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<QueueStatusResponse>> streamStatus(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                                   @RequestParam(name = "user_id") String userId) {
+        return queueStatusService.streamStatus(queue, userId)
+                .map(status -> ServerSentEvent.builder(status)
+                        .event(status.allowed() ? "allowed" : "rank")
+                        .build())
+                .publish(events -> Flux.merge(events, Flux.interval(KEEP_ALIVE_INTERVAL)
+                        .map(tick -> ServerSentEvent.<QueueStatusResponse>builder().comment("keep-alive").build())
+                        .takeUntilOther(events.then())));
     }
+
     @PostMapping("/leave")
     public Mono<ResponseEntity<Void>> leaveQueue(@RequestBody HeartbeatRequest request) {
         return userQueueService.removeUserFromQueue(request.getQueue(), request.getUserId())
                 .thenReturn(ResponseEntity.ok().build());
     }
 
+    // 사용자별 요청 수 제한(RateLimitFilter)도 같은 본문의 userId 로 센다. (queue.rate-limit.endpoints.heartbeat.user-id-from: body)
     @PostMapping("/heartbeat")
     public Mono<ResponseEntity<Void>> heartbeat(@RequestBody HeartbeatRequest request) {
         return userQueueService.updateHeartbeat(request.getQueue(), request.getUserId())
                 .thenReturn(ResponseEntity.ok().build());
     }
 
+    // 보호 대상 서비스가 응답 지연/에러율을 보고 (aimd 전략의 속도 조절에 사용, 내부 API 키 필요)
+    @PostMapping("/feedback")
+    public Mono<ResponseEntity<Void>> feedback(@Valid @RequestBody FeedbackRequest request) {
+        return queueEventBus.publishFeedback(request.getQueue(), request.getLatencyMillis(), request.getErrorRate())
+                .thenReturn(ResponseEntity.accepted().build());
+    }
+
     @PostMapping("/flushAll")
     public Mono<ResponseEntity<String>> flushAll() {
         return userQueueService.removeAllUserFromQueue();
     }
+
+    // userId 가 없는 줄은 건너뛴다.
+    private Flux<String> userIds(Flux<BulkUserRequest> requests) {
+        return requests.mapNotNull(BulkUserRequest::getUserId)
+                .filter(userId -> !userId.isBlank());
+    }
 }
@@ -1,40 +1,55 @@
 package com.queuesystem.queuesystem.controller;
 
+import com.queuesystem.queuesystem.service.AdmissionTokenService;
 import com.queuesystem.queuesystem.service.UserQueueService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.reactive.result.view.Rendering;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+
 @Controller
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class WaitingController {
 
     private final UserQueueService userQueueService;
+    private final AdmissionTokenService admissionTokenService;
+    private final WaitingRoomPage waitingRoomPage;
 
+    // 대기 페이지는 모든 사용자에게 같은 정적 HTML 이며, 순번은 페이지가 API 로 따로 가져간다.
     @GetMapping("/waiting-room")
-    Mono<Rendering> waitingRoomPage(@RequestParam(name = "queue", defaultValue = "default") String queue,
-                                    @RequestParam(name = "user_id") String userId,
-                                    @RequestParam(name = "redirect_url") String redirectUrl,
-                                    ServerWebExchange exchange) {
+    Mono<ResponseEntity<byte[]>> waitingRoomPage(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                 @RequestParam(name = "user_id") String userId,
+                                                 @RequestParam(name = "redirect_url") String redirectUrl,
+                                                 ServerWebExchange exchange) {
 
-        return userQueueService.isAllowed(queue, userId)
-                .filter(allowed -> allowed)
-                .flatMap(allowed -> Mono.just(Rendering.redirectTo(redirectUrl).build()))
+        // 진입이 허용됐으면 진입 토큰을 붙여서 보호 대상 서비스로 이동
+        return userQueueService.getAllowedUntil(queue, userId)
+                .map(allowedUntil -> ResponseEntity.status(HttpStatus.SEE_OTHER)
+                        .location(URI.create(withToken(redirectUrl, admissionTokenService.issue(queue, userId, allowedUntil))))
+                        .<byte[]>build())
                 .switchIfEmpty(
                         userQueueService.registerWaitQueue(queue, userId)
                                 .onErrorResume(ex -> userQueueService.getRank(queue, userId))
-                                .map(rank -> Rendering.view("waiting-room.html")
-                                        .modelAttribute("number", rank)
-                                        .modelAttribute("userId", userId)
-                                        .modelAttribute("queue", queue)
-                                        .build()
-                                )
+                                .map(rank -> waitingRoomPage.render(exchange.getRequest()))
                 );
     }
+
+    private String withToken(String redirectUrl, String token) {
+        if (token == null) {
+            return redirectUrl;
+        }
+        return UriComponentsBuilder.fromUriString(redirectUrl)
+                .queryParam("admission_token", token)
+                .build()
+                .toUriString();
+    }
 }
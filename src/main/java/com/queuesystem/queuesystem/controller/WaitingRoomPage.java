@@ -0,0 +1,91 @@
+package com.queuesystem.queuesystem.controller;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// 대기 페이지 (모든 사용자에게 같은 정적 HTML)
+// 기동 시 한 번만 만들어서(정적 파일 주소에 내용 해시를 붙이고 gzip 압축) 요청마다 렌더링/압축하지 않는다.
+// 진입 허용 여부에 따라 응답이 달라지므로 HTML 은 매번 재검증(no-cache)하고, 바뀌지 않았으면 ETag 로 304 를 돌려준다.
+// gzip 응답은 본문이 다르므로 ETag 에 -gz 를 붙여서 구분한다. (캐시가 압축/비압축 응답을 같은 것으로 보지 않게)
+// brotli 는 JDK 에 압축기가 없어서(외부 라이브러리 필요) 쓰지 않는다. HTML 이 작아서 gzip 과의 차이도 크지 않다.
+// app.js, app.css 는 주소에 내용 해시가 붙어 있으므로 오래 캐시된다. (spring.web.resources 설정)
+@Component
+class WaitingRoomPage {
+    private static final String SHELL = "waiting-room/index.html";
+    private static final String ASSET_DIRECTORY = "waiting-room/";
+    private static final List<String> ASSETS = List.of("app.js", "app.css");
+
+    private final byte[] html;
+    private final byte[] gzip;
+    private final String etag;
+    private final String gzipEtag;
+
+    WaitingRoomPage() {
+        String shell = read(SHELL);
+        for (String asset : ASSETS) {
+            String version = DigestUtils.md5DigestAsHex(read("static/" + ASSET_DIRECTORY + asset).getBytes(StandardCharsets.UTF_8));
+            shell = shell.replace("{{" + asset + "}}", "/" + ASSET_DIRECTORY + asset + "?v=" + version);
+        }
+        this.html = shell.getBytes(StandardCharsets.UTF_8);
+        this.gzip = gzip(html);
+        String hash = DigestUtils.md5DigestAsHex(html);
+        this.etag = "\"" + hash + "\"";
+        this.gzipEtag = "\"" + hash + "-gz\"";
+    }
+
+    ResponseEntity<byte[]> render(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        String acceptEncoding = headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzipped = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String currentEtag = gzipped ? gzipEtag : etag;
+        if (headers.getIfNoneMatch().contains(currentEtag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(currentEtag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(currentEtag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
+        if (gzipped) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return response.body(html);
+    }
+
+    private static String read(String path) {
+        try {
+            return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
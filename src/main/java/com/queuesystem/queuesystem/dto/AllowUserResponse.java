@@ -1,4 +1,8 @@
 package com.queuesystem.queuesystem.dto;
 
-public record AllowUserResponse(Long requestCount, Long allowUserCount) {
+import java.util.List;
+import java.util.Map;
+
+// tokens: 사용자 ID -> 진입 토큰 (서명 키가 없으면 비어 있음)
+public record AllowUserResponse(Long requestCount, Long allowUserCount, List<String> allowedUserIds, Map<String, String> tokens) {
 }
@@ -1,4 +1,9 @@
 package com.queuesystem.queuesystem.dto;
 
-public record AllowedUserResponse(Boolean allowed) {
+// token: 허용된 경우 진입 토큰 (서명 키가 없으면 null)
+public record AllowedUserResponse(Boolean allowed, String token) {
+
+    public static AllowedUserResponse notAllowed() {
+        return new AllowedUserResponse(false, null);
+    }
 }
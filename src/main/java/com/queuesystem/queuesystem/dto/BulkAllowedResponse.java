@@ -0,0 +1,12 @@
+package com.queuesystem.queuesystem.dto;
+
+public record BulkAllowedResponse(String userId, Boolean allowed, String error) {
+
+    public static BulkAllowedResponse of(String userId, Boolean allowed) {
+        return new BulkAllowedResponse(userId, allowed, null);
+    }
+
+    public static BulkAllowedResponse failed(String userId, String error) {
+        return new BulkAllowedResponse(userId, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.queuesystem.queuesystem.dto;
+
+// rank: 대기열에 없으면 -1
+public record BulkRankResponse(String userId, Long rank, String error) {
+
+    public static BulkRankResponse of(String userId, Long rank) {
+        return new BulkRankResponse(userId, rank, null);
+    }
+
+    public static BulkRankResponse failed(String userId, String error) {
+        return new BulkRankResponse(userId, null, error);
+    }
+}
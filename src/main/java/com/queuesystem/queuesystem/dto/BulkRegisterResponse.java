@@ -0,0 +1,13 @@
+package com.queuesystem.queuesystem.dto;
+
+// error: 실패한 경우의 에러 코드 (중복 등록이면 UQ-0001)
+public record BulkRegisterResponse(String userId, Long rank, String error) {
+
+    public static BulkRegisterResponse registered(String userId, Long rank) {
+        return new BulkRegisterResponse(userId, rank, null);
+    }
+
+    public static BulkRegisterResponse failed(String userId, String error) {
+        return new BulkRegisterResponse(userId, null, error);
+    }
+}
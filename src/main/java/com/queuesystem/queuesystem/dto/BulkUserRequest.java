@@ -0,0 +1,12 @@
+package com.queuesystem.queuesystem.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserRequest {
+    private String userId; // NDJSON 한 줄: {"userId": "..."}
+}
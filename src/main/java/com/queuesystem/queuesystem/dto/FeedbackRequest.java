@@ -0,0 +1,23 @@
+package com.queuesystem.queuesystem.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackRequest {
+    @NotBlank
+    private String queue;         // 대기열 이름
+    @PositiveOrZero
+    private double latencyMillis; // 보호 대상 서비스의 최근 응답 지연 (ms)
+    @PositiveOrZero
+    @DecimalMax("1")
+    private double errorRate;     // 보호 대상 서비스의 최근 에러율 (0 ~ 1)
+}
@@ -0,0 +1,5 @@
+package com.queuesystem.queuesystem.dto;
+
+// renewed: false 면 lease 가 없음 (자리가 회수/반납/만료됨)
+public record LeaseResponse(Boolean renewed) {
+}
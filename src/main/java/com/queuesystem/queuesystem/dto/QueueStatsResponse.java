@@ -0,0 +1,13 @@
+package com.queuesystem.queuesystem.dto;
+
+import java.util.List;
+
+// 속도(rate)는 최근 완료된 분들의 초당 평균, depthTrend 는 초당 대기 인원 변화 (등록 - 진입 허용 - 이탈 - 정리)
+// etaSeconds: rank 를 준 경우 진입 허용 속도 기준 예상 대기 시간 (속도가 0 이면 null)
+public record QueueStatsResponse(String queue, Long waiting, Long proceeding, Double joinRate, Double admissionRate,
+                                 Double depthTrend, Long rank, Long etaSeconds, List<Point> history) {
+
+    // minute: 분 시작 시각(ms)
+    public record Point(Long minute, Long joins, Long admissions, Long leaves, Long evictions) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.queuesystem.queuesystem.dto;
+
+public record QueueStatusResponse(Long rank, Boolean allowed) {
+
+    public static QueueStatusResponse waiting(Long rank) {
+        return new QueueStatusResponse(rank, false);
+    }
+
+    public static QueueStatusResponse admitted() {
+        return new QueueStatusResponse(0L, true);
+    }
+}
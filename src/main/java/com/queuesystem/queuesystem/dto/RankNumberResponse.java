@@ -1,4 +1,4 @@
 package com.queuesystem.queuesystem.dto;
 
-public record RankNumberResponse(Long rank) {
+public record RankNumberResponse(Long rank, Long expectedWaitSeconds) {
 }
@@ -0,0 +1,5 @@
+package com.queuesystem.queuesystem.dto;
+
+// replayedEvents: 스냅샷 이후 journal 에서 다시 적용한 이벤트 수
+public record RecoveryResponse(Long waiting, Long proceeding, Long replayedEvents, Long elapsedMillis) {
+}
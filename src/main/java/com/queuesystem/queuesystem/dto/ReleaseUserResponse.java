@@ -0,0 +1,5 @@
+package com.queuesystem.queuesystem.dto;
+
+// released: 진입 허용 상태였던 사용자의 자리를 반납했는지
+public record ReleaseUserResponse(Boolean released) {
+}
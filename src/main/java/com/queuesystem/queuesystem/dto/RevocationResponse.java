@@ -0,0 +1,5 @@
+package com.queuesystem.queuesystem.dto;
+
+// revokedAt: 폐기 시각(ms), 이 시각 이전에 발급된 진입 토큰은 무효
+public record RevocationResponse(String queue, String userId, Long revokedAt) {
+}
@@ -1,15 +1,20 @@
 package com.queuesystem.queuesystem.exception;
 
+import com.queuesystem.queuesystem.metrics.QueueMetrics;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import reactor.core.publisher.Mono;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class ApplicationAdvice {
+    private final QueueMetrics queueMetrics;
 
     @ExceptionHandler(ApplicationException.class)
     Mono<?> applicationException(ApplicationException e) {
+       queueMetrics.error(e.getCode());
        return Mono.just(ResponseEntity
                .status(e.getHttpStatus())
                .body(new ServiceExceptionResponse(e.getCode(), e.getMessage())));
@@ -8,7 +8,13 @@ import org.springframework.http.HttpStatus;
 public enum ErrorCode {
     QUEUE_ALREADY_REGISTER_USER(HttpStatus.CONFLICT, "UQ-0001", "Already register user."),
     QUEUE_REGISTRATION_FAILED(HttpStatus.CONFLICT, "UQ-0002", "Queue registration failed."),
-    USER_NOT_FOUND_IN_QUEUE(HttpStatus.CONFLICT, "UQ-0002", "User not found in queue.");
+    USER_NOT_FOUND_IN_QUEUE(HttpStatus.CONFLICT, "UQ-0002", "User not found in queue."),
+    QUEUE_OPERATION_FAILED(HttpStatus.INTERNAL_SERVER_ERROR, "UQ-0003", "Queue operation failed."),
+    QUEUE_UNKNOWN_LANE(HttpStatus.BAD_REQUEST, "UQ-0004", "Unknown lane. lane=%s"),
+    QUEUE_TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "UQ-0005", "Too many requests. Retry after %d seconds."),
+    QUEUE_USER_ID_REQUIRED(HttpStatus.BAD_REQUEST, "UQ-0006", "user_id is required."),
+    QUEUE_INTERNAL_API_KEY_REQUIRED(HttpStatus.UNAUTHORIZED, "UQ-0007", "Valid internal API key is required."),
+    QUEUE_RECOVERY_IN_PROGRESS(HttpStatus.CONFLICT, "UQ-0008", "Queue recovery is already in progress.");
 
     private final HttpStatus httpStatus;
     private final String code;
@@ -0,0 +1,81 @@
+package com.queuesystem.queuesystem.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+// 이벤트 1건 = [payload 길이(int)][payload CRC32(int)][payload]
+// payload = [type(byte)][timestamp(long)][score(double)][queue 길이(short)][queue][userId 길이(short)][userId]
+// segment 파일은 0 으로 채워진 상태에서 시작하므로, 길이가 0 이거나 CRC 가 맞지 않는 지점을 기록의 끝으로 본다.
+final class JournalCodec {
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int FIXED_PAYLOAD_BYTES = Byte.BYTES + Long.BYTES + Double.BYTES + Short.BYTES * 2;
+
+    private JournalCodec() {
+    }
+
+    // 기록할 수 없을 만큼 큰 이벤트는 null
+    static byte[] encode(JournalEvent event) {
+        byte[] queue = event.queue().getBytes(StandardCharsets.UTF_8);
+        byte[] userId = event.userId().getBytes(StandardCharsets.UTF_8);
+        if (queue.length > Short.MAX_VALUE || userId.length > Short.MAX_VALUE) {
+            return null;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(FIXED_PAYLOAD_BYTES + queue.length + userId.length)
+                .put((byte) event.type().ordinal())
+                .putLong(event.timestamp())
+                .putDouble(event.score())
+                .putShort((short) queue.length)
+                .put(queue)
+                .putShort((short) userId.length)
+                .put(userId);
+
+        return ByteBuffer.allocate(HEADER_BYTES + payload.capacity())
+                .putInt(payload.capacity())
+                .putInt(crc(payload.array()))
+                .put(payload.array())
+                .array();
+    }
+
+    // buffer 의 현재 위치에서 이벤트 1건을 읽음 (기록의 끝이면 null, 위치는 그대로)
+    static JournalEvent decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int crc = buffer.getInt();
+        if (length < FIXED_PAYLOAD_BYTES || length > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        if (crc(payload) != crc) {
+            buffer.position(start);
+            return null;
+        }
+
+        ByteBuffer fields = ByteBuffer.wrap(payload);
+        JournalEvent.Type type = JournalEvent.Type.of(fields.get());
+        long timestamp = fields.getLong();
+        double score = fields.getDouble();
+        String queue = string(fields);
+        String userId = string(fields);
+        return new JournalEvent(type, timestamp, queue, userId, score);
+    }
+
+    private static String string(ByteBuffer fields) {
+        byte[] value = new byte[fields.getShort()];
+        fields.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
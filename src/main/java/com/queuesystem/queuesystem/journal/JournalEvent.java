@@ -0,0 +1,17 @@
+package com.queuesystem.queuesystem.journal;
+
+// 대기열 이벤트 (timestamp 는 ms)
+// LEAVE/EXPIRE 는 대기열에서, REVOKE 는 진입 허용 목록에서 빠지는 이벤트
+// score: REGISTER 는 대기열 score, ADMIT 는 진입 허용 시각, 나머지는 사용하지 않음
+public record JournalEvent(Type type, long timestamp, String queue, String userId, double score) {
+
+    public enum Type {
+        REGISTER, ADMIT, LEAVE, EXPIRE, REVOKE;
+
+        private static final Type[] VALUES = values();
+
+        static Type of(int ordinal) {
+            return VALUES[ordinal];
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.queuesystem.queuesystem.journal;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.service.LeaderElection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 대기열 이벤트 write-behind 기록
+// 요청 처리 스레드는 메모리 큐에 넣기만 하고(가득 차면 버림), 전용 스레드가 모아서 memory-mapped segment 파일에 쓴다.
+// 인스턴스마다 <directory>/<instanceId>/segment-<시작 시각>-<순번>.log 에 기록하며, segment 가 차면 새 파일로 넘어간다.
+@Component
+@Slf4j
+public class QueueJournal {
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private final QueueProperties.Journal properties;
+    private final Path directory;
+    private final BlockingQueue<JournalEvent> pending;
+    private final Counter dropped;
+    // 메모리 큐에 넣은 이벤트 수, writer 가 처리(기록 또는 실패)한 이벤트 수
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private volatile boolean running;
+    private Thread writer;
+
+    // 아래는 writer 스레드에서만 사용
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private volatile Path segmentPath;
+    private long segmentSequence;
+
+    public QueueJournal(QueueProperties queueProperties, LeaderElection leaderElection, MeterRegistry meterRegistry) {
+        this.properties = queueProperties.getJournal();
+        this.directory = Path.of(properties.getDirectory(), leaderElection.getInstanceId());
+        this.pending = new ArrayBlockingQueue<>(properties.getBufferSize());
+        this.dropped = Counter.builder("queue.journal.dropped")
+                .description("Journal events dropped because the write buffer was full")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void register(String queue, String userId, double score) {
+        append(new JournalEvent(JournalEvent.Type.REGISTER, System.currentTimeMillis(), queue, userId, score));
+    }
+
+    public void admit(String queue, Collection<String> userIds, long allowedAt) {
+        userIds.forEach(userId -> append(new JournalEvent(JournalEvent.Type.ADMIT, allowedAt, queue, userId, allowedAt)));
+    }
+
+    public void leave(String queue, String userId) {
+        append(new JournalEvent(JournalEvent.Type.LEAVE, System.currentTimeMillis(), queue, userId, 0));
+    }
+
+    public void revoke(String queue, String userId) {
+        append(new JournalEvent(JournalEvent.Type.REVOKE, System.currentTimeMillis(), queue, userId, 0));
+    }
+
+    public void expire(String queue, Collection<String> userIds) {
+        long now = System.currentTimeMillis();
+        userIds.forEach(userId -> append(new JournalEvent(JournalEvent.Type.EXPIRE, now, queue, userId, 0)));
+    }
+
+    // 이 인스턴스의 segment 디렉터리
+    Path directory() {
+        return directory;
+    }
+
+    // 현재 기록 중인 segment (다른 스레드에서 정리 대상에서 제외할 때 사용)
+    Path currentSegment() {
+        return segmentPath;
+    }
+
+    // 호출 시점까지 받은 이벤트를 writer 가 모두 처리할 때까지 대기 (timeout 안에 끝나지 않으면 false)
+    boolean awaitWritten(Duration timeout) throws InterruptedException {
+        long target = appended.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (processed.get() < target) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private void append(JournalEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (pending.offer(event)) {
+            appended.incrementAndGet();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "queue-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // 남은 이벤트를 모두 기록한 뒤 종료
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void writeLoop() {
+        List<JournalEvent> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !pending.isEmpty()) {
+            try {
+                JournalEvent first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, properties.getBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Journal write failed. {} events lost.", batch.size(), e);
+            } finally {
+                processed.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+        closeSegment();
+    }
+
+    // 배치마다 force 해서 프로세스가 죽어도 기록이 남고, 파일 수정 시각으로 오래된 segment 를 정리할 수 있게 한다.
+    private void write(List<JournalEvent> batch) throws IOException {
+        for (JournalEvent event : batch) {
+            byte[] record = JournalCodec.encode(event);
+            if (record == null) {
+                dropped.increment();
+                continue;
+            }
+            if (segment == null || segment.remaining() < record.length) {
+                roll();
+            }
+            segment.put(record);
+        }
+        // 배치의 이벤트를 모두 버렸으면 아직 segment 가 없을 수 있다.
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        segmentPath = directory.resolve("%s%013d-%06d%s".formatted(SEGMENT_PREFIX, System.currentTimeMillis(), segmentSequence++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, properties.getSegmentSize().toBytes());
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Journal segment close failed. segment={}", segmentPath, e);
+        }
+        segment = null;
+        channel = null;
+    }
+}
@@ -0,0 +1,490 @@
+package com.queuesystem.queuesystem.journal;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.dto.RecoveryResponse;
+import com.queuesystem.queuesystem.exception.ErrorCode;
+import com.queuesystem.queuesystem.service.LeaderElection;
+import com.queuesystem.queuesystem.utils.QueueKeys;
+import com.queuesystem.queuesystem.utils.RedisScripts;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Redis 대기열 상태 스냅샷과 복구
+// 리더는 snapshotInterval 마다 활성 큐와 진입 허용 중인 큐의 대기열/진입 허용 ZSET 을 snapshots/snapshot-<시각>.snap 으로 남긴다.
+// 복구는 가장 최근 스냅샷을 읽고, (스냅샷 시각 - replayMargin) 이후의 journal 이벤트를 시각 순으로 다시 적용한 뒤
+// 결과를 샤드별로 나눠 Redis 에 한꺼번에 넣는다. (모든 인스턴스의 journal 디렉터리를 읽으므로 공유 볼륨이 필요)
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueueStateRecovery {
+    // 스냅샷을 남긴 적이 있다는 표시 (Redis 가 유실되면 함께 사라지므로 기동 시 복구 여부 판단에 사용)
+    private static final String SNAPSHOT_MARKER_KEY = "user:queue:snapshot";
+    private static final String RECOVERY_LOCK_KEY = "user:queue:recovery";
+    private static final Duration RECOVERY_LOCK_TTL = Duration.ofMinutes(5);
+    private static final String SNAPSHOT_DIRECTORY = "snapshots";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x51534E50;
+    private static final int SNAPSHOTS_TO_KEEP = 2;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int SCAN_COUNT = 1000;
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final QueueProperties queueProperties;
+    private final QueueKeys queueKeys;
+    private final LeaderElection leaderElection;
+    private final QueueJournal queueJournal;
+    private final RedisScripts redisScripts;
+    private final Scheduler snapshotScheduler = Schedulers.newSingle("queue-snapshot", true);
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+    private long lastSnapshotAt;
+
+    // 스냅샷은 리더 인스턴스에서만 snapshotInterval 마다 남기고,
+    // segment 정리는 인스턴스마다 자기 디렉터리만 한다. (기록 중인 segment 를 아는 것은 그 인스턴스뿐)
+    // 스냅샷 작성과 파일 작업은 전용 스레드에서 하고, 스케줄 스레드는 시작만 하고 바로 돌아간다. (이전 실행이 끝나지 않았으면 건너뜀)
+    @Scheduled(initialDelay = 5000, fixedDelay = 5000)
+    public void scheduleSnapshot() {
+        QueueProperties.Journal journal = queueProperties.getJournal();
+        long now = System.currentTimeMillis();
+        if (!journal.isEnabled() || !snapshotting.compareAndSet(false, true)) {
+            return;
+        }
+
+        Mono<Void> snapshot = Mono.empty();
+        if (leaderElection.isLeader() && now - lastSnapshotAt >= journal.getSnapshotInterval().toMillis()) {
+            lastSnapshotAt = now;
+            snapshot = snapshot(now);
+        }
+        snapshot.then(Mono.fromCallable(() -> {
+                    pruneSegments();
+                    return true;
+                }).subscribeOn(snapshotScheduler))
+                .doFinally(signal -> snapshotting.set(false))
+                .subscribe(null, e -> log.warn("Queue snapshot failed", e));
+    }
+
+    @PreDestroy
+    public void stop() {
+        snapshotScheduler.dispose();
+    }
+
+    // 임시 파일에 쓴 뒤 이름을 바꿔서, 읽는 쪽에는 완성된 스냅샷만 보이게 한다.
+    // 만료된 진입 허용 사용자는 남기지 않는다.
+    // 스냅샷 표시가 없으면 Redis 가 유실된 것이므로 빈 상태를 스냅샷으로 남기지 않고(정리도 하지 않음) 복구한다.
+    // (스냅샷이 하나도 없으면 처음 실행이므로 그대로 스냅샷을 남긴다.)
+    Mono<Void> snapshot(long now) {
+        return reactiveRedisTemplate.hasKey(SNAPSHOT_MARKER_KEY)
+                .flatMap(marked -> marked
+                        ? Mono.just(false)
+                        : Mono.fromCallable(() -> !snapshots().isEmpty()).subscribeOn(snapshotScheduler))
+                .flatMap(lost -> lost ? recoverAfterLoss() : writeSnapshot(now));
+    }
+
+    private Mono<Void> recoverAfterLoss() {
+        return Mono.defer(() -> {
+            log.warn("Queue snapshot marker is missing. Recovering instead of taking a snapshot.");
+            return recoverIfLost()
+                    .doOnNext(result -> log.info("Queue state recovered. {}", result))
+                    .then();
+        });
+    }
+
+    // 대기열/진입 허용 ZSET 을 SCAN 으로 읽으면서 (응답을 모두 모으지 않고) 전용 스레드에서 바로 파일에 쓴다.
+    private Mono<Void> writeSnapshot(long now) {
+        Path directory = root().resolve(SNAPSHOT_DIRECTORY);
+        Path snapshot = directory.resolve("%s%013d%s".formatted(SNAPSHOT_PREFIX, now, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(snapshot.getFileName() + ".tmp");
+
+        return Mono.using(() -> openSnapshot(directory, temp, now),
+                        out -> snapshotUsers(now)
+                                .publishOn(snapshotScheduler)
+                                .reduce(0L, (written, event) -> written + write(out, event))
+                                .doOnNext(written -> close(out)),
+                        QueueStateRecovery::close)
+                .subscribeOn(snapshotScheduler)
+                .flatMap(written -> Mono.fromCallable(() -> Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING))
+                        .then(reactiveRedisTemplate.opsForValue().set(SNAPSHOT_MARKER_KEY, String.valueOf(now)))
+                        .then(Mono.fromCallable(() -> {
+                            log.info("Queue snapshot written. snapshot={}, users={}", snapshot, written);
+                            pruneSnapshots();
+                            return true;
+                        }).subscribeOn(snapshotScheduler)))
+                .then();
+    }
+
+    // 큐 -> 샤드 -> 대기열, 진입 허용 순으로 한 키씩 읽는다.
+    private Flux<JournalEvent> snapshotUsers(long now) {
+        long expiredBefore = now - queueProperties.getProceedTtl().toMillis();
+
+        return snapshotQueues(expiredBefore)
+                .concatMap(queue -> Flux.fromIterable(queueKeys.shards(queue))
+                        .concatMap(shard -> Flux.concat(
+                                scanUsers(shard.waitKey())
+                                        .map(user -> new JournalEvent(JournalEvent.Type.REGISTER, now, queue, user.getValue(), user.getScore())),
+                                scanUsers(shard.proceedKey())
+                                        .filter(user -> user.getScore() > expiredBefore)
+                                        .map(user -> new JournalEvent(JournalEvent.Type.ADMIT, now, queue, user.getValue(), user.getScore())))));
+    }
+
+    // 스냅샷 대상 큐: 활성 큐 목록 + proceedTtl 안에 진입을 허용한 큐
+    // (대기자가 없어 활성 목록에서 빠진 큐에도 진입 허용 사용자가 남아 있을 수 있다. 허용 사용자가 모두 만료된 큐는 목록에서 지운다.)
+    private Flux<String> snapshotQueues(long expiredBefore) {
+        return reactiveRedisTemplate.opsForZSet()
+                .removeRangeByScore(QueueKeys.USER_QUEUE_PROCEEDING_KEY, Range.leftUnbounded(Range.Bound.inclusive((double) expiredBefore)))
+                .thenMany(Flux.concat(reactiveRedisTemplate.opsForSet().members(QueueKeys.USER_QUEUE_ACTIVE_KEY),
+                        reactiveRedisTemplate.opsForZSet().range(QueueKeys.USER_QUEUE_PROCEEDING_KEY, Range.closed(0L, -1L))))
+                .distinct();
+    }
+
+    private Flux<ZSetOperations.TypedTuple<String>> scanUsers(String key) {
+        return reactiveRedisTemplate.opsForZSet().scan(key, ScanOptions.scanOptions().count(SCAN_COUNT).build());
+    }
+
+    private static DataOutputStream openSnapshot(Path directory, Path temp, long now) throws IOException {
+        Files.createDirectories(directory);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeLong(now);
+        return out;
+    }
+
+    // 기록한 사용자 수 (0 또는 1)
+    private static long write(DataOutputStream out, JournalEvent event) {
+        byte[] record = JournalCodec.encode(event);
+        if (record == null) {
+            return 0;
+        }
+        try {
+            out.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return 1;
+    }
+
+    // 이미 닫힌 스트림을 다시 닫아도 된다.
+    private static void close(DataOutputStream out) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 최근 스냅샷 몇 개만 남긴다.
+    private void pruneSnapshots() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (Path snapshot : snapshots.subList(Math.min(SNAPSHOTS_TO_KEEP, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    // 이 인스턴스의 segment 중 가장 최근 스냅샷 기준으로 다시 적용할 필요가 없는 것을 지운다. (기록 중인 segment 는 제외)
+    // 배치마다 force 하므로 segment 의 수정 시각은 마지막 이벤트 시각 이후이다.
+    void pruneSegments() throws IOException {
+        List<Path> snapshots = snapshots();
+        if (snapshots.isEmpty() || !Files.isDirectory(queueJournal.directory())) {
+            return;
+        }
+        long replayFrom = snapshotTime(snapshots.get(0)) - queueProperties.getJournal().getReplayMargin().toMillis();
+
+        try (Stream<Path> files = Files.list(queueJournal.directory())) {
+            for (Path segment : files.filter(QueueStateRecovery::isSegment).toList()) {
+                if (!segment.equals(queueJournal.currentSegment()) && Files.getLastModifiedTime(segment).toMillis() < replayFrom) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+        }
+    }
+
+    // 파일 이름의 스냅샷 시각 (snapshot-<시각>.snap)
+    private static long snapshotTime(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    // Redis 가 유실된 상태(스냅샷 표시가 없음)로 기동하면 한 인스턴스만 복구
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        QueueProperties.Journal journal = queueProperties.getJournal();
+        if (!journal.isEnabled() || !journal.isRecoverOnStartup()) {
+            return;
+        }
+
+        recoverIfLost()
+                .subscribe(result -> log.info("Queue state recovered on startup. {}", result),
+                        e -> log.warn("Queue state recovery failed", e));
+    }
+
+    // 스냅샷 표시가 없으면 복구 lock 을 잡은 한 인스턴스만 복구 (복구하지 않았으면 empty)
+    // lock 을 잡은 뒤에 표시를 확인해서, 그 사이 다른 인스턴스가 복구를 마쳤으면 다시 복구하지 않는다.
+    private Mono<RecoveryResponse> recoverIfLost() {
+        return withRecoveryLock(reactiveRedisTemplate.hasKey(SNAPSHOT_MARKER_KEY)
+                .filter(exists -> !exists)
+                .flatMap(lost -> recover()));
+    }
+
+    // 수동 복구 (/recover). 다른 인스턴스가 복구 중이면 409
+    public Mono<RecoveryResponse> recoverManually() {
+        return withRecoveryLock(recover())
+                .switchIfEmpty(Mono.error(() -> ErrorCode.QUEUE_RECOVERY_IN_PROGRESS.build()));
+    }
+
+    // 복구 lock 을 잡았을 때만 실행하고 끝나면 푼다. (인스턴스가 죽으면 RECOVERY_LOCK_TTL 뒤에 풀린다.)
+    private <T> Mono<T> withRecoveryLock(Mono<T> recovery) {
+        return Mono.usingWhen(reactiveRedisTemplate.opsForValue()
+                        .setIfAbsent(RECOVERY_LOCK_KEY, leaderElection.getInstanceId(), RECOVERY_LOCK_TTL),
+                locked -> locked ? recovery : Mono.empty(),
+                locked -> locked ? releaseRecoveryLock() : Mono.empty());
+    }
+
+    // 다른 인스턴스가 잡은 lock 은 풀지 않는다. (lock 이 만료된 뒤 다른 인스턴스가 잡은 경우)
+    private Mono<Boolean> releaseRecoveryLock() {
+        return reactiveRedisTemplate.execute(redisScripts.getReleaseLeader(), List.of(RECOVERY_LOCK_KEY), List.of(leaderElection.getInstanceId()))
+                .next()
+                .map(released -> released == 1)
+                .defaultIfEmpty(false);
+    }
+
+    // 스냅샷 + journal 로 대기열/진입 허용 상태를 다시 만든다. (여러 인스턴스가 동시에 하지 않도록 복구 lock 을 잡은 쪽에서만 호출)
+    // 대기 사용자의 heartbeat 는 복구 시각으로 채워서 heartbeatTimeout 안에 다시 접속할 수 있게 한다.
+    // approximate 순번 계산용 누적 카운터는 복구하지 않는다. (다음 정확한 순번 조회부터 다시 맞춰진다.)
+    // 복구가 끝나면 스냅샷 표시를 다시 남겨서 같은 유실을 두 번 복구하지 않게 한다.
+    Mono<RecoveryResponse> recover() {
+        long startedAt = System.currentTimeMillis();
+
+        return Mono.fromCallable(this::readState)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(state -> {
+                    long now = System.currentTimeMillis();
+                    long expiredBefore = now - queueProperties.getProceedTtl().toMillis();
+                    state.proceeding.values().forEach(users -> users.values().removeIf(allowedAt -> allowedAt <= expiredBefore));
+
+                    return Flux.fromIterable(state.waiting.entrySet())
+                            .concatMap(queue -> loadWaiting(queue.getKey(), queue.getValue(), now))
+                            .thenMany(Flux.fromIterable(state.proceeding.entrySet()))
+                            .concatMap(queue -> loadProceeding(queue.getKey(), queue.getValue(), now))
+                            .then(reactiveRedisTemplate.opsForValue().set(SNAPSHOT_MARKER_KEY, String.valueOf(now)))
+                            .then(Mono.fromSupplier(() -> new RecoveryResponse(count(state.waiting), count(state.proceeding),
+                                    state.replayed, System.currentTimeMillis() - startedAt)));
+                });
+    }
+
+    private Mono<Void> loadWaiting(String queue, Map<String, Double> users, long now) {
+        if (users.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Flux.fromIterable(byShard(queue, users).entrySet())
+                .flatMap(shard -> Flux.fromIterable(shard.getValue())
+                        .buffer(LOAD_CHUNK_SIZE)
+                        .flatMap(chunk -> reactiveRedisTemplate.opsForZSet().addAll(shard.getKey().waitKey(), chunk)
+                                .then(reactiveRedisTemplate.opsForZSet().addAll(shard.getKey().heartbeatKey(), chunk.stream()
+                                        .map(user -> ZSetOperations.TypedTuple.of(user.getValue(), (double) now))
+                                        .toList()))))
+                .then(reactiveRedisTemplate.opsForSet().add(QueueKeys.USER_QUEUE_ACTIVE_KEY, queue))
+                .then();
+    }
+
+    // 진입 허용 키는 마지막 허용 사용자가 만료되는 시점에 키 전체가 정리되도록 만료 시간을 맞춘다.
+    // lease 는 스냅샷에 없으므로 복구 시각부터 다시 시작한다.
+    private Mono<Void> loadProceeding(String queue, Map<String, Double> users, long now) {
+        if (users.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Flux.fromIterable(byShard(queue, users).entrySet())
+                .flatMap(shard -> {
+                    double lastAllowedAt = shard.getValue().stream().mapToDouble(ZSetOperations.TypedTuple::getScore).max().orElse(now);
+                    Duration ttl = Duration.ofMillis((long) lastAllowedAt + queueProperties.getProceedTtl().toMillis() - now);
+
+                    return Flux.fromIterable(shard.getValue())
+                            .buffer(LOAD_CHUNK_SIZE)
+                            .flatMap(chunk -> reactiveRedisTemplate.opsForZSet().addAll(shard.getKey().proceedKey(), chunk)
+                                    .then(reactiveRedisTemplate.opsForZSet().addAll(shard.getKey().leaseKey(), chunk.stream()
+                                            .map(user -> ZSetOperations.TypedTuple.of(user.getValue(), (double) now))
+                                            .toList())))
+                            .then(reactiveRedisTemplate.expire(shard.getKey().proceedKey(), ttl))
+                            .then(reactiveRedisTemplate.expire(shard.getKey().leaseKey(), ttl))
+                            .then(reactiveRedisTemplate.opsForZSet().add(QueueKeys.USER_QUEUE_PROCEEDING_KEY, queue, lastAllowedAt));
+                })
+                .then();
+    }
+
+    // 현재 샤드 설정 기준으로 다시 나눈다.
+    private Map<QueueKeys.Shard, List<ZSetOperations.TypedTuple<String>>> byShard(String queue, Map<String, Double> users) {
+        Map<QueueKeys.Shard, List<ZSetOperations.TypedTuple<String>>> shards = new HashMap<>();
+        users.forEach((userId, score) -> shards.computeIfAbsent(queueKeys.shardOf(queue, userId), shard -> new ArrayList<>())
+                .add(ZSetOperations.TypedTuple.of(userId, score)));
+        return shards;
+    }
+
+    private static long count(Map<String, Map<String, Double>> queues) {
+        return queues.values().stream().mapToLong(Map::size).sum();
+    }
+
+    private RecoveredState readState() throws IOException {
+        RecoveredState state = new RecoveredState();
+        long replayFrom = 0;
+
+        // 가장 최근 스냅샷이 깨졌으면 그 이전 스냅샷을 쓴다.
+        for (Path snapshot : snapshots()) {
+            try {
+                replayFrom = readSnapshot(snapshot, state) - queueProperties.getJournal().getReplayMargin().toMillis();
+                break;
+            } catch (IOException e) {
+                log.warn("Queue snapshot unreadable. snapshot={}", snapshot, e);
+                state = new RecoveredState();
+            }
+        }
+
+        List<JournalEvent> events = readSegments(replayFrom);
+        events.forEach(state::apply);
+        state.replayed = events.size();
+        return state;
+    }
+
+    // 스냅샷 시각 반환
+    private long readSnapshot(Path snapshot, RecoveredState state) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a queue snapshot");
+            }
+            long snapshotAt = in.readLong();
+
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return snapshotAt;
+                }
+                if (length < 0 || length > MAX_RECORD_BYTES) {
+                    throw new IOException("Corrupted snapshot record");
+                }
+
+                byte[] record = new byte[JournalCodec.HEADER_BYTES + length];
+                ByteBuffer.wrap(record).putInt(length);
+                in.readFully(record, Integer.BYTES, record.length - Integer.BYTES);
+                JournalEvent event = JournalCodec.decode(ByteBuffer.wrap(record));
+                if (event == null) {
+                    throw new IOException("Corrupted snapshot record");
+                }
+                state.apply(event);
+            }
+        }
+    }
+
+    // replayFrom 이후 이벤트를 시각 순으로 (기록 중인 segment 는 CRC 가 맞는 곳까지만 읽는다.)
+    private List<JournalEvent> readSegments(long replayFrom) throws IOException {
+        List<JournalEvent> events = new ArrayList<>();
+        for (Path segment : segments()) {
+            if (Files.getLastModifiedTime(segment).toMillis() < replayFrom) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                JournalEvent event;
+                while ((event = JournalCodec.decode(buffer)) != null) {
+                    if (event.timestamp() >= replayFrom) {
+                        events.add(event);
+                    }
+                }
+            }
+        }
+        events.sort(Comparator.comparingLong(JournalEvent::timestamp));
+        return events;
+    }
+
+    private Path root() {
+        return Path.of(queueProperties.getJournal().getDirectory());
+    }
+
+    // 최신 순
+    private List<Path> snapshots() throws IOException {
+        Path directory = root().resolve(SNAPSHOT_DIRECTORY);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    // 모든 인스턴스의 segment
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(root())) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root(), 2)) {
+            return files.filter(QueueStateRecovery::isSegment).toList();
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(QueueJournal.SEGMENT_PREFIX) && name.endsWith(QueueJournal.SEGMENT_SUFFIX);
+    }
+
+    // 큐 -> (사용자 ID -> score)
+    private static class RecoveredState {
+        private final Map<String, Map<String, Double>> waiting = new HashMap<>();
+        private final Map<String, Map<String, Double>> proceeding = new HashMap<>();
+        private long replayed;
+
+        void apply(JournalEvent event) {
+            switch (event.type()) {
+                case REGISTER -> users(waiting, event.queue()).put(event.userId(), event.score());
+                case ADMIT -> {
+                    users(waiting, event.queue()).remove(event.userId());
+                    users(proceeding, event.queue()).put(event.userId(), event.score());
+                }
+                case LEAVE, EXPIRE -> users(waiting, event.queue()).remove(event.userId());
+                case REVOKE -> users(proceeding, event.queue()).remove(event.userId());
+            }
+        }
+
+        private static Map<String, Double> users(Map<String, Map<String, Double>> queues, String queue) {
+            return queues.computeIfAbsent(queue, key -> new HashMap<>());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.queuesystem.queuesystem.metrics;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 대기열 메트릭
+// 큐 이름은 사용자 입력이므로 큐 태그가 붙는 메트릭은 먼저 들어온 maxTaggedQueues 개 큐에만 만든다.
+// 나머지 메트릭(타이머/카운터)은 연산 이름, 에러 코드처럼 값의 종류가 정해진 태그만 쓴다.
+@Component
+public class QueueMetrics {
+    private final MeterRegistry meterRegistry;
+    private final QueueProperties.Metrics properties;
+    private final Set<String> taggedQueues = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, QueueDepth> depths = new ConcurrentHashMap<>();
+    private final Counter duplicateRegistrations;
+
+    public QueueMetrics(MeterRegistry meterRegistry, QueueProperties queueProperties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = queueProperties.getMetrics();
+        this.duplicateRegistrations = Counter.builder("queue.registration.duplicate")
+                .description("Registrations rejected because the user was already waiting")
+                .register(meterRegistry);
+    }
+
+    // 서비스 연산 소요 시간 (queue.operation, operation/outcome 태그)
+    public <T> Mono<T> timed(String operation, Mono<T> source) {
+        return time("queue.operation", operation, source);
+    }
+
+    // Redis 호출 소요 시간 (queue.redis, operation/outcome 태그)
+    public <T> Mono<T> timedRedis(String operation, Mono<T> source) {
+        return time("queue.redis", operation, source);
+    }
+
+    // 스케줄 작업 한 번의 소요 시간 (queue.scheduler.tick, operation/outcome 태그)
+    public <T> Mono<T> timedTick(String tick, Mono<T> source) {
+        return time("queue.scheduler.tick", tick, source);
+    }
+
+    // 이전 실행이 끝나지 않아 건너뛴 스케줄 작업
+    public void skippedTick(String tick) {
+        meterRegistry.counter("queue.scheduler.skipped", "tick", tick).increment();
+    }
+
+    public void duplicateRegistration() {
+        duplicateRegistrations.increment();
+    }
+
+    public void error(String code) {
+        meterRegistry.counter("queue.errors", "code", code).increment();
+    }
+
+    // 큐 태그를 붙여도 되는 큐인지 (처음 보는 큐는 한도 안에서만 허용)
+    public boolean tryTagQueue(String queue) {
+        if (taggedQueues.contains(queue)) {
+            return true;
+        }
+        synchronized (taggedQueues) {
+            if (taggedQueues.size() >= properties.getMaxTaggedQueues()) {
+                return taggedQueues.contains(queue);
+            }
+            taggedQueues.add(queue);
+            return true;
+        }
+    }
+
+    // 스케줄러가 주기적으로 샘플링한 대기/진입 허용 인원
+    public void recordDepth(String queue, long waiting, long proceeding) {
+        if (!tryTagQueue(queue)) {
+            return;
+        }
+        QueueDepth depth = depths.computeIfAbsent(queue, this::registerDepth);
+        depth.waiting.set(waiting);
+        depth.proceeding.set(proceeding);
+    }
+
+    private QueueDepth registerDepth(String queue) {
+        QueueDepth depth = new QueueDepth(new AtomicLong(), new AtomicLong());
+        Gauge.builder("queue.waiting", depth.waiting, AtomicLong::get)
+                .description("Users waiting in the queue")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        Gauge.builder("queue.proceeding", depth.proceeding, AtomicLong::get)
+                .description("Users allowed to proceed and not yet expired")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        return depth;
+    }
+
+    private <T> Mono<T> time(String name, String operation, Mono<T> source) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return source.doFinally(signal -> sample.stop(timer(name, operation, outcome(signal))));
+        });
+    }
+
+    private Timer timer(String name, String operation, String outcome) {
+        return timers.computeIfAbsent(name + ":" + operation + ":" + outcome, key -> Timer.builder(name)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancel";
+            default -> "success";
+        };
+    }
+
+    private record QueueDepth(AtomicLong waiting, AtomicLong proceeding) {
+    }
+}
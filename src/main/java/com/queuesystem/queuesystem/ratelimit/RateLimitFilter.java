@@ -0,0 +1,182 @@
+package com.queuesystem.queuesystem.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.exception.ApplicationException;
+import com.queuesystem.queuesystem.exception.ErrorCode;
+import com.queuesystem.queuesystem.metrics.QueueMetrics;
+import com.queuesystem.queuesystem.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// 순번 조회/heartbeat/대기 페이지처럼 주기적으로 호출되는 API 의 사용자별, IP 별 요청 수 제한
+// 인스턴스 메모리의 슬라이딩 윈도우로 먼저 거르고, globalPerUser 를 설정한 API 만 Redis 로 모든 인스턴스 합산 한도를 확인한다.
+// 한도를 넘으면 429 와 Retry-After(초)를 돌려주며, 대기 페이지는 그 시간만큼 기다렸다가 다시 호출한다.
+// 사용자별 한도는 API 가 사용자를 정하는 곳(userIdFrom: user_id 쿼리 또는 JSON 본문의 userId)에서 읽은 ID 로 세고,
+// 사용자별 한도를 설정한 API 는 ID 가 없으면 400 으로 거절한다. (ID 를 빼거나 다른 곳에 담아서 사용자별 한도를 피하지 못하게 한다.)
+// IP 는 요청의 원격 주소이므로 로드밸런서 뒤에서는 server.forward-headers-strategy 로 X-Forwarded-For 의 클라이언트 IP 를 쓰게 한다. (application.yml 기본값 native)
+@Component
+@Slf4j
+public class RateLimitFilter implements WebFilter {
+    private static final String GLOBAL_KEY_PREFIX = "user:queue:ratelimit:";
+    private static final String BODY_USER_ID_FIELD = "userId";
+    private static final int MAX_BODY_BYTES = 4096;
+
+    private final QueueProperties.RateLimit properties;
+    private final RedisUtils redisUtils;
+    private final QueueMetrics queueMetrics;
+    private final ObjectMapper objectMapper;
+    private final SlidingWindowRateLimiter limiter;
+    // 경로 -> API
+    private final Map<String, NamedEndpoint> endpoints = new HashMap<>();
+
+    public RateLimitFilter(QueueProperties queueProperties, RedisUtils redisUtils, QueueMetrics queueMetrics, ObjectMapper objectMapper) {
+        this.properties = queueProperties.getRateLimit();
+        this.redisUtils = redisUtils;
+        this.queueMetrics = queueMetrics;
+        this.objectMapper = objectMapper;
+        this.limiter = new SlidingWindowRateLimiter(properties.getWindow(), properties.getMaxTrackedKeys());
+        properties.getEndpoints().forEach((name, endpoint) -> endpoints.put(endpoint.getPath(), new NamedEndpoint(name, endpoint)));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        NamedEndpoint endpoint = properties.isEnabled() ? endpoints.get(exchange.getRequest().getPath().value()) : null;
+        if (endpoint == null) {
+            return chain.filter(exchange);
+        }
+
+        if (endpoint.isPerUser() && endpoint.endpoint().getUserIdFrom() == QueueProperties.Endpoint.UserIdSource.BODY) {
+            return cacheBody(exchange)
+                    .flatMap(body -> filter(body.exchange(), chain, endpoint, body.userId()));
+        }
+        return filter(exchange, chain, endpoint, exchange.getRequest().getQueryParams().getFirst("user_id"));
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain, NamedEndpoint endpoint, String userId) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (endpoint.isPerUser() && (userId == null || userId.isBlank())) {
+            return writeError(exchange, ErrorCode.QUEUE_USER_ID_REQUIRED.build());
+        }
+        long retryAfter = tryAcquireLocal(endpoint, userId, request.getRemoteAddress());
+        if (retryAfter > 0) {
+            return reject(exchange, retryAfter);
+        }
+        if (endpoint.endpoint().getGlobalPerUser() <= 0) {
+            return chain.filter(exchange);
+        }
+
+        // Redis 에 문제가 있으면 전체 한도는 확인하지 않고 통과시킨다.
+        return redisUtils.incrementWindow(GLOBAL_KEY_PREFIX + endpoint.name() + ":" + userId, properties.getWindow())
+                .map(count -> count.count() > endpoint.endpoint().getGlobalPerUser() ? Math.max(1, count.remainingMillis()) : 0L)
+                .onErrorResume(e -> {
+                    log.warn("Global rate limit check failed. endpoint={}", endpoint.name(), e);
+                    return Mono.just(0L);
+                })
+                .defaultIfEmpty(0L)
+                .flatMap(globalRetryAfter -> globalRetryAfter > 0 ? reject(exchange, globalRetryAfter) : chain.filter(exchange));
+    }
+
+    // 본문을 읽어서 userId 를 구하고, API 가 같은 본문을 다시 읽을 수 있도록 읽은 내용을 돌려주는 요청으로 바꾼다.
+    // 본문이 MAX_BODY_BYTES 를 넘거나 JSON 이 아니면 userId 가 없는 것으로 본다.
+    private Mono<CachedBody> cacheBody(ServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getRequest().getBody(), MAX_BODY_BYTES)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> {
+                    ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+                        }
+                    };
+                    return new CachedBody(exchange.mutate().request(request).build(), userIdOf(bytes));
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> Mono.just(new CachedBody(exchange, null)));
+    }
+
+    private String userIdOf(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode userId = objectMapper.readTree(body).get(BODY_USER_ID_FIELD);
+            return userId != null && userId.isValueNode() ? userId.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // IP 한도를 먼저 확인 (user_id 를 바꿔 가며 호출하는 클라이언트)
+    private long tryAcquireLocal(NamedEndpoint endpoint, String userId, InetSocketAddress remoteAddress) {
+        long now = System.currentTimeMillis();
+        QueueProperties.Endpoint limits = endpoint.endpoint();
+
+        if (limits.getPerIp() > 0 && remoteAddress != null && remoteAddress.getAddress() != null) {
+            long retryAfter = limiter.tryAcquire(endpoint.name() + ":ip:" + remoteAddress.getAddress().getHostAddress(), limits.getPerIp(), now);
+            if (retryAfter > 0) {
+                return retryAfter;
+            }
+        }
+        if (limits.getPerUser() > 0) {
+            return limiter.tryAcquire(endpoint.name() + ":user:" + userId, limits.getPerUser(), now);
+        }
+        return 0;
+    }
+
+    // 브라우저가 페이지를 직접 요청한 경우에는 Refresh 헤더로 그 시간 뒤에 다시 불러오게 한다.
+    private Mono<Void> reject(ServerWebExchange exchange, long retryAfterMillis) {
+        long seconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        if (exchange.getRequest().getHeaders().getAccept().stream().anyMatch(type -> type.equalsTypeAndSubtype(MediaType.TEXT_HTML))) {
+            response.getHeaders().set("Refresh", String.valueOf(seconds));
+        }
+        return writeError(exchange, ErrorCode.QUEUE_TOO_MANY_REQUESTS.build(seconds));
+    }
+
+    private Mono<Void> writeError(ServerWebExchange exchange, ApplicationException exception) {
+        queueMetrics.error(exception.getCode());
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(exception.getHttpStatus());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"code\":\"%s\",\"message\":\"%s\"}".formatted(exception.getCode(), exception.getMessage())
+                .getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private record CachedBody(ServerWebExchange exchange, String userId) {
+    }
+
+    private record NamedEndpoint(String name, QueueProperties.Endpoint endpoint) {
+        boolean isPerUser() {
+            return endpoint.getPerUser() > 0 || endpoint.getGlobalPerUser() > 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.queuesystem.queuesystem.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 키(사용자, IP)별 슬라이딩 윈도우 요청 수 제한
+// 이전 윈도우 요청 수를 지난 비율만큼 줄여서 현재 윈도우 요청 수에 더하는 근사 방식이며,
+// 키마다 [윈도우 번호 32bit][현재 윈도우 요청 수 16bit][이전 윈도우 요청 수 16bit] 를 long 하나에 담아 CAS 로 갱신한다. (락/할당 없음)
+public class SlidingWindowRateLimiter {
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final long windowMillis;
+    private final Cache<String, AtomicLong> counters;
+
+    public SlidingWindowRateLimiter(Duration window, long maxKeys) {
+        this.windowMillis = window.toMillis();
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+    }
+
+    // 허용하면 0, 거절하면 다시 시도할 수 있을 때까지 남은 시간(ms) (거절된 요청은 세지 않는다.)
+    public long tryAcquire(String key, long limit, long now) {
+        AtomicLong counter = counters.get(key, k -> new AtomicLong());
+        long window = now / windowMillis;
+        long elapsed = now % windowMillis;
+
+        while (true) {
+            long state = counter.get();
+            long current = (state >>> 16) & MAX_COUNT;
+            long previous = state & MAX_COUNT;
+            long stateWindow = state >>> 32;
+            if (stateWindow != (window & 0xFFFFFFFFL)) {
+                previous = stateWindow == ((window - 1) & 0xFFFFFFFFL) ? current : 0;
+                current = 0;
+            }
+
+            double weight = 1 - (double) elapsed / windowMillis;
+            if (previous * weight + current + 1 > limit) {
+                return retryAfter(limit, current, previous, elapsed);
+            }
+
+            long next = ((window & 0xFFFFFFFFL) << 32) | (Math.min(current + 1, MAX_COUNT) << 16) | previous;
+            if (counter.compareAndSet(state, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // 추정 요청 수가 limit - 1 이하로 내려가는 시점까지 남은 시간
+    private long retryAfter(long limit, long current, long previous, long elapsed) {
+        double needed;
+        if (current + 1 > limit) {
+            // 다음 윈도우에서 현재 요청 수가 이전 윈도우 몫으로 줄어들 때까지
+            needed = windowMillis - elapsed + windowMillis * Math.max(0, 1 - (double) (limit - 1) / current);
+        } else {
+            needed = windowMillis * (1 - (double) (limit - current - 1) / previous) - elapsed;
+        }
+        return Math.max(1, (long) Math.ceil(needed));
+    }
+}
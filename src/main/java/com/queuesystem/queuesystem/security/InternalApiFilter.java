@@ -0,0 +1,58 @@
+package com.queuesystem.queuesystem.security;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.exception.ApplicationException;
+import com.queuesystem.queuesystem.exception.ErrorCode;
+import com.queuesystem.queuesystem.metrics.QueueMetrics;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
+
+// 복구처럼 운영 도구나 보호 대상 서비스만 호출해야 하는 내부 API 는 X-Queue-Api-Key 헤더가 설정한 키와 같아야 통과시킨다.
+// 키를 설정하지 않았으면 내부 API 를 모두 거절한다. (실수로 키 없이 배포해도 열리지 않게)
+@Component
+public class InternalApiFilter implements WebFilter {
+    public static final String API_KEY_HEADER = "X-Queue-Api-Key";
+
+    private final byte[] apiKey;
+    private final Set<String> paths;
+    private final QueueMetrics queueMetrics;
+
+    public InternalApiFilter(QueueProperties queueProperties, QueueMetrics queueMetrics) {
+        this.apiKey = queueProperties.getInternal().getApiKey().getBytes(StandardCharsets.UTF_8);
+        this.paths = Set.copyOf(queueProperties.getInternal().getPaths());
+        this.queueMetrics = queueMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!paths.contains(exchange.getRequest().getPath().value()) || isAuthorized(exchange.getRequest().getHeaders().getFirst(API_KEY_HEADER))) {
+            return chain.filter(exchange);
+        }
+        return writeError(exchange, ErrorCode.QUEUE_INTERNAL_API_KEY_REQUIRED.build());
+    }
+
+    // 비교 시간으로 키를 추측하지 못하게 MessageDigest.isEqual 로 비교
+    private boolean isAuthorized(String key) {
+        return apiKey.length > 0 && key != null && MessageDigest.isEqual(apiKey, key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<Void> writeError(ServerWebExchange exchange, ApplicationException exception) {
+        queueMetrics.error(exception.getCode());
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(exception.getHttpStatus());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"code\":\"%s\",\"message\":\"%s\"}".formatted(exception.getCode(), exception.getMessage())
+                .getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
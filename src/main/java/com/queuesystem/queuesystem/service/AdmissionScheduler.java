@@ -0,0 +1,236 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.config.SchedulingConfig;
+import com.queuesystem.queuesystem.metrics.QueueMetrics;
+import com.queuesystem.queuesystem.service.admission.AdmissionRateController;
+import com.queuesystem.queuesystem.service.admission.AdmissionRateControllers;
+import com.queuesystem.queuesystem.service.admission.FairShareAllocator;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// 활성 큐 목록을 기준으로 주기적으로 진입 허용/대기자 정리를 수행
+// 큐별 작업은 동시 실행 수를 제한하고, 이전 실행이 끝나지 않았으면 이번 실행은 건너뛴다.
+// 실행은 admissionScheduler(스케줄 작업 전용 스레드)에서 이루어지며, 스케줄러 스레드를 붙잡고 기다리지 않는다.
+// 여러 인스턴스가 떠 있어도 리더 한 곳에서만 실행된다.
+// 실행 도중 리더가 바뀌면 남은 작업을 중단하고, 큐마다 진입 허용 직전에 한 번 더 확인하며,
+// 진입 허용 스크립트는 lease 의 fencing 시각이 지나면 Redis 에서 무시된다.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionScheduler {
+    private static final Duration LEADERSHIP_CHECK_INTERVAL = Duration.ofMillis(100);
+
+    private final UserQueueService userQueueService;
+    private final QueueProperties queueProperties;
+    private final LeaderElection leaderElection;
+    private final AdmissionRateControllers admissionRateControllers;
+    private final QueueMetrics queueMetrics;
+    @Qualifier(SchedulingConfig.ADMISSION_REACTOR_SCHEDULER)
+    private final Scheduler admissionScheduler;
+    private final QueueEventBus queueEventBus;
+    // 작업 이름 -> 실행 중 여부
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+    private Disposable refillSubscription;
+
+    // 한 번의 실행에서 모든 활성 큐의 허용 인원을 먼저 정한 뒤 큐별로 진입 허용
+    // 큐별 허용 인원은 AdmissionRateController 가 정하고, fair-share 를 켜면 전체 허용 속도 안에서
+    // 대기 인원 x weight 비율로 다시 나눈다. (큐별 이동은 각각 Lua 스크립트 한 번으로 원자적으로 처리)
+    @Scheduled(initialDelay = 5000, fixedDelay = 3000)
+    public void scheduleAllowUser() {
+        runTick("allow", allow(userQueueService.findActiveQueues()));
+    }
+
+    // 반납/회수로 자리가 빈 큐를 refillDelay 동안 모아서 다음 주기를 기다리지 않고 다시 채운다.
+    // 빈자리 수로 허용 인원을 정하는 concurrency 전략 큐만 대상이며, 정기 실행과 같은 "allow" 작업으로 실행해서
+    // 둘이 같은 빈자리를 함께 채우지 않게 한다. (정기 실행이 진행 중이면 건너뛰고 다음 정기 실행이 채운다.)
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribeReleases() {
+        refillSubscription = queueEventBus.releases()
+                .map(QueueEventBus.ReleaseEvent::queue)
+                .filter(queue -> leaderElection.isLeader()
+                        && admissionRateControllers.forQueue(queue).requiresProceedingCount())
+                .bufferTimeout(1000, queueProperties.getLease().getRefillDelay(), admissionScheduler)
+                .map(Set::copyOf)
+                .subscribe(queues -> runTick("allow", userQueueService.findActiveQueues()
+                        .filter(queues::contains)
+                        .as(this::allow)));
+    }
+
+    @PreDestroy
+    public void unsubscribeReleases() {
+        if (refillSubscription != null) {
+            refillSubscription.dispose();
+        }
+    }
+
+    private Mono<Void> allow(Flux<String> queues) {
+        int concurrency = queueProperties.getScheduler().getConcurrency();
+
+        return queues
+                .flatMap(queue -> demand(queue)
+                        .onErrorResume(e -> {
+                            log.warn("Scheduled allow failed. queue={}", queue, e);
+                            return Mono.empty();
+                        }), concurrency)
+                .collectList()
+                .publishOn(admissionScheduler)
+                .flatMapIterable(this::plan)
+                .flatMap(admission -> allowUser(admission)
+                        .onErrorResume(e -> {
+                            log.warn("Scheduled allow failed. queue={}", admission.demand().queue(), e);
+                            return Mono.empty();
+                        }), concurrency)
+                .then();
+    }
+
+    // fair-share 를 쓰지 않으면 대기 인원은 조회하지 않는다.
+    private Mono<QueueDemand> demand(String queue) {
+        AdmissionRateController controller = admissionRateControllers.forQueue(queue);
+        Mono<AdmissionRateController.AdmissionContext> context = controller.requiresProceedingCount()
+                ? userQueueService.countProceeding(queue).map(AdmissionRateController.AdmissionContext::new)
+                : Mono.just(new AdmissionRateController.AdmissionContext(0));
+        Mono<Long> waiting = queueProperties.getAdmission().getFairShare().isEnabled()
+                ? userQueueService.countWaiting(queue)
+                : Mono.just(Long.MAX_VALUE);
+
+        return Mono.zip(context.map(controller::permits), waiting)
+                .map(demand -> new QueueDemand(queue, controller, demand.getT1(), demand.getT2()));
+    }
+
+    private List<QueueAdmission> plan(List<QueueDemand> demands) {
+        if (!queueProperties.getAdmission().getFairShare().isEnabled()) {
+            return demands.stream()
+                    .map(demand -> new QueueAdmission(demand, demand.permits()))
+                    .toList();
+        }
+
+        Map<String, Long> allocations = admissionRateControllers.allocateFairShare(demands.stream()
+                .map(demand -> new FairShareAllocator.Demand(demand.queue(),
+                        admissionRateControllers.weightOf(demand.queue()) * demand.waiting(),
+                        Math.min(demand.permits(), demand.waiting())))
+                .toList());
+
+        return demands.stream()
+                .map(demand -> {
+                    long permits = allocations.getOrDefault(demand.queue(), 0L);
+                    demand.controller().release(demand.permits() - permits);
+                    return new QueueAdmission(demand, permits);
+                })
+                .toList();
+    }
+
+    // 허용 인원보다 적게 이동했으면 대기열이 빈 것이므로 활성 큐 목록에서 뺀다.
+    private Mono<Boolean> allowUser(QueueAdmission admission) {
+        String queue = admission.demand().queue();
+        if (!leaderElection.isLeader()) {
+            return Mono.just(false);
+        }
+        if (admission.permits() == 0) {
+            return admission.demand().waiting() == 0 ? userQueueService.deactivateIfEmpty(queue) : Mono.just(false);
+        }
+
+        return userQueueService.allowUser(queue, admission.permits(), leaderElection.getFenceUntil())
+                .flatMap(allowed -> allowed.size() < admission.permits()
+                        ? userQueueService.deactivateIfEmpty(queue)
+                        : Mono.just(false));
+    }
+
+    // heartbeat 가 끊긴 대기 사용자를 큐마다 최대 reapBatchSize 명씩 제거
+    @Scheduled(initialDelay = 5000, fixedDelay = 5000)
+    public void scheduleEvictStaleUser() {
+        runPerQueue("evict", userQueueService::evictStaleUsers);
+    }
+
+    // lease 갱신이 끊긴 진입 허용 사용자의 자리를 큐마다 최대 reapBatchSize 명씩 회수 (회수한 자리는 반납 이벤트로 바로 다시 채운다.)
+    // 대기자가 없는 큐는 채울 사용자가 없으므로 회수하지 않는다. (proceedTtl 이 지나면 만료)
+    @Scheduled(initialDelay = 5000, fixedDelay = 2000)
+    public void scheduleReclaimAbandoned() {
+        if (!queueProperties.getLease().isEnabled()) {
+            return;
+        }
+        runPerQueue("reclaim", userQueueService::reclaimAbandoned);
+    }
+
+    // 큐별 대기/진입 허용 인원을 메트릭으로 기록
+    // 읽기만 하므로 모든 인스턴스에서 실행한다. (리더만 샘플링하면 나머지 인스턴스의 게이지가 마지막 값에 멈춘다.)
+    @Scheduled(initialDelay = 5000, fixedDelay = 5000)
+    public void scheduleSampleQueueDepth() {
+        runPerQueue("sample", false, queue -> Mono.zip(userQueueService.countWaiting(queue), userQueueService.countProceeding(queue))
+                .doOnNext(depth -> queueMetrics.recordDepth(queue, depth.getT1(), depth.getT2())));
+    }
+
+    private void runPerQueue(String name, Function<String, Mono<?>> task) {
+        runPerQueue(name, true, task);
+    }
+
+    private void runPerQueue(String name, boolean leaderOnly, Function<String, Mono<?>> task) {
+        runTick(name, leaderOnly, userQueueService.findActiveQueues()
+                .flatMap(queue -> task.apply(queue)
+                        .onErrorResume(e -> {
+                            log.warn("Scheduled {} failed. queue={}", name, queue, e);
+                            return Mono.empty();
+                        }), queueProperties.getScheduler().getConcurrency())
+                .then());
+    }
+
+    private void runTick(String name, Mono<Void> tick) {
+        runTick(name, true, tick);
+    }
+
+    // leaderOnly 면 리더 인스턴스에서만 실행하고, 실행 중에 로컬 lease 가 끝나면(리더를 잃으면) 그 시점에 중단한다.
+    // 이전 실행이 아직 진행 중이면 밀린 실행을 쌓지 않고 건너뛴다. (tickTimeout 이 지나면 이전 실행은 중단된다.)
+    private void runTick(String name, boolean leaderOnly, Mono<Void> tick) {
+        if (leaderOnly && !leaderElection.isLeader()) {
+            return;
+        }
+        AtomicBoolean inProgress = running.computeIfAbsent(name, key -> new AtomicBoolean());
+        if (!inProgress.compareAndSet(false, true)) {
+            queueMetrics.skippedTick(name);
+            log.debug("Scheduled {} skipped. Previous run is still in progress.", name);
+            return;
+        }
+        QueueProperties.Scheduler scheduler = queueProperties.getScheduler();
+
+        Mono<Void> timed = tick.subscribeOn(admissionScheduler)
+                .timeout(scheduler.getTickTimeout(), admissionScheduler);
+
+        queueMetrics.timedTick(name, leaderOnly ? timed.takeUntilOther(leadershipLost()) : timed)
+                .onErrorResume(e -> {
+                    log.warn("Scheduled {} did not finish in {}", name, scheduler.getTickTimeout(), e);
+                    return Mono.empty();
+                })
+                .doFinally(signal -> inProgress.set(false))
+                .subscribe();
+    }
+
+    private Mono<Long> leadershipLost() {
+        return Flux.interval(LEADERSHIP_CHECK_INTERVAL, admissionScheduler)
+                .filter(check -> !leaderElection.isLeader())
+                .next();
+    }
+
+    private record QueueDemand(String queue, AdmissionRateController controller, long permits, long waiting) {
+    }
+
+    private record QueueAdmission(QueueDemand demand, long permits) {
+    }
+}
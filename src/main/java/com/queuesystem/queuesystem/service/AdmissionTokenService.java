@@ -0,0 +1,74 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.admissiontoken.AdmissionToken;
+import com.queuesystem.admissiontoken.AdmissionTokenSigner;
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.dto.RevocationResponse;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 진입 토큰 발급과 폐기 목록 관리
+// 보호 대상 서비스는 admission-token 모듈의 AdmissionTokenVerifier 로 토큰을 직접 검증하므로
+// 요청마다 /allowed 를 호출하지 않아도 된다. 폐기 목록만 /revocations 로 주기적으로 가져간다.
+@Service
+public class AdmissionTokenService {
+    private static final String REVOKED_KEY = "user:queue:revoked";
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final QueueProperties queueProperties;
+    // 서명 키가 없으면 null (토큰을 발급하지 않음)
+    private final AdmissionTokenSigner signer;
+
+    public AdmissionTokenService(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, QueueProperties queueProperties) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.queueProperties = queueProperties;
+        String secret = queueProperties.getToken().getSecret();
+        this.signer = secret == null || secret.isEmpty() ? null : new AdmissionTokenSigner(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 진입 허용 만료 시각까지 유효한 토큰 (발급하지 않는 설정이면 null)
+    public String issue(String queue, String userId, long allowedUntil) {
+        if (signer == null) {
+            return null;
+        }
+        return signer.sign(new AdmissionToken(queue, userId, System.currentTimeMillis(), allowedUntil));
+    }
+
+    // 사용자 ID -> 토큰
+    public Map<String, String> issueAll(String queue, Collection<String> userIds, long allowedUntil) {
+        Map<String, String> tokens = new LinkedHashMap<>();
+        if (signer != null) {
+            userIds.forEach(userId -> tokens.put(userId, issue(queue, userId, allowedUntil)));
+        }
+        return tokens;
+    }
+
+    // 토큰은 proceedTtl 보다 오래 유효하지 않으므로 그보다 오래된 폐기 기록은 함께 정리한다.
+    public Mono<Void> revoke(String queue, String userId) {
+        long now = System.currentTimeMillis();
+        long expiredBefore = now - queueProperties.getProceedTtl().toMillis();
+
+        return reactiveRedisTemplate.opsForZSet().add(REVOKED_KEY, queue + "\n" + userId, now)
+                .then(reactiveRedisTemplate.opsForZSet()
+                        .removeRangeByScore(REVOKED_KEY, Range.leftUnbounded(Range.Bound.exclusive((double) expiredBefore))))
+                .then();
+    }
+
+    // since(ms) 이후에 폐기된 목록
+    public Flux<RevocationResponse> revocations(long since) {
+        return reactiveRedisTemplate.opsForZSet()
+                .rangeByScoreWithScores(REVOKED_KEY, Range.rightUnbounded(Range.Bound.exclusive((double) since)))
+                .map(revoked -> {
+                    String[] member = revoked.getValue().split("\n", 2);
+                    return new RevocationResponse(member[0], member[1], revoked.getScore().longValue());
+                });
+    }
+}
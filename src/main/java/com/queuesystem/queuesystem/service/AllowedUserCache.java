@@ -0,0 +1,90 @@
+package com.queuesystem.queuesystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.queuesystem.queuesystem.config.QueueProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// 진입 허용 여부 near-cache
+// 허용된 사용자는 허용 만료 시각과 ttl 중 빠른 시점까지, 허용되지 않은 사용자는 negativeTtl 동안 보관한다.
+// 진입 허용/허용 취소/자리 반납 이벤트(Redis pub/sub)를 받으면 모든 인스턴스에서 해당 사용자를 지워서 다음 조회 때 Redis 를 다시 본다.
+// (허용 취소된 사용자가 다른 인스턴스의 캐시로 새 진입 토큰을 받아 가지 못하게 한다.)
+@Component
+public class AllowedUserCache {
+    private static final long NOT_ALLOWED = 0L;
+
+    private final QueueProperties.AllowedCache properties;
+    private final QueueEventBus queueEventBus;
+    // (큐, 사용자) -> 허용 만료 시각(ms), 허용되지 않았으면 NOT_ALLOWED
+    private final Cache<Key, Long> cache;
+
+    public AllowedUserCache(QueueProperties queueProperties, QueueEventBus queueEventBus, MeterRegistry meterRegistry) {
+        this.properties = queueProperties.getAllowedCache();
+        this.queueEventBus = queueEventBus;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(new AllowedExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "queue.allowed");
+    }
+
+    // 캐시에 있으면 허용 만료 시각(허용되지 않았으면 0), 없으면 null
+    public Long getAllowedUntil(String queue, String userId) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return cache.getIfPresent(new Key(queue, userId));
+    }
+
+    public void put(String queue, String userId, Long allowedUntil) {
+        if (properties.isEnabled()) {
+            cache.put(new Key(queue, userId), allowedUntil == null ? NOT_ALLOWED : allowedUntil);
+        }
+    }
+
+    public void invalidate(String queue, String userId) {
+        cache.invalidate(new Key(queue, userId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribeAdmission() {
+        queueEventBus.admissions()
+                .subscribe(event -> event.userIds().forEach(userId -> invalidate(event.queue(), userId)));
+        queueEventBus.revocations()
+                .subscribe(event -> event.userIds().forEach(userId -> invalidate(event.queue(), userId)));
+        queueEventBus.releases()
+                .subscribe(event -> event.userIds().forEach(userId -> invalidate(event.queue(), userId)));
+    }
+
+    private record Key(String queue, String userId) {
+    }
+
+    private class AllowedExpiry implements Expiry<Key, Long> {
+        @Override
+        public long expireAfterCreate(Key key, Long allowedUntil, long currentTime) {
+            if (allowedUntil == NOT_ALLOWED) {
+                return properties.getNegativeTtl().toNanos();
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(allowedUntil - System.currentTimeMillis());
+            return Math.max(0, Math.min(remaining, properties.getTtl().toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Long allowedUntil, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, allowedUntil, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Long allowedUntil, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
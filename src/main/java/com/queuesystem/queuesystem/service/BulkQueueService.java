@@ -0,0 +1,150 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.dto.BulkAllowedResponse;
+import com.queuesystem.queuesystem.dto.BulkRankResponse;
+import com.queuesystem.queuesystem.dto.BulkRegisterResponse;
+import com.queuesystem.queuesystem.exception.ApplicationException;
+import com.queuesystem.queuesystem.exception.ErrorCode;
+import com.queuesystem.queuesystem.utils.QueueKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// 여러 사용자에 대한 등록/진입 허용 여부/순번 일괄 처리
+// 입력을 chunkSize 명씩 나누고, chunk 안의 Redis 명령은 샤드마다 한 번(등록은 스크립트, 진입 허용 여부는 ZMSCORE)으로 묶어 보낸다.
+// 사용자 하나가 실패해도 요청 전체를 중단하지 않고 사용자별 결과에 에러 코드를 담는다.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkQueueService {
+    // 같은 요청 안에서 사용자마다 늘리는 등록 시각 (ms, double 로 정확히 표현되는 2 의 거듭제곱 분의 1)
+    private static final double SCORE_STEP = 1.0 / 1024;
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final UserQueueService userQueueService;
+    private final QueueProperties queueProperties;
+    private final QueueKeys queueKeys;
+    private final AllowedUserCache allowedUserCache;
+
+    // 사용자마다 등록 시각(score)을 SCORE_STEP 씩 늘려서 주므로, 같은 ms 에 등록돼도 등록 순서(FIFO)는 입력 순서와 같다.
+    // (score 가 같으면 ZSET 은 사용자 ID 순으로 정렬하므로 현재 시각만 쓰면 입력 순서가 깨진다.)
+    // chunk 는 샤드마다 스크립트 한 번으로 등록하고, chunk 안에서 같은 사용자가 다시 나오면 중복 등록으로 처리한다.
+    public Flux<BulkRegisterResponse> registerWaitQueue(final String queue, final Flux<String> userIds) {
+        return Flux.defer(() -> {
+            ScoreSequence scores = new ScoreSequence();
+            return userIds.buffer(queueProperties.getBulk().getChunkSize())
+                    .concatMap(chunk -> {
+                        double base = scores.reserve(chunk.size());
+                        Map<String, Double> users = new LinkedHashMap<>();
+                        for (int i = 0; i < chunk.size(); i++) {
+                            users.putIfAbsent(chunk.get(i), base + i * SCORE_STEP);
+                        }
+
+                        return userQueueService.registerWaitQueueAll(queue, users)
+                                .flatMapIterable(ranks -> {
+                                    Set<String> seen = new HashSet<>();
+                                    return chunk.stream()
+                                            .map(userId -> registered(userId, seen.add(userId) ? ranks.get(userId) : Long.valueOf(UserQueueService.ALREADY_REGISTERED)))
+                                            .toList();
+                                })
+                                .onErrorResume(e -> Flux.fromIterable(chunk)
+                                        .map(userId -> BulkRegisterResponse.failed(userId, errorCode(e))));
+                    });
+        });
+    }
+
+    // rank 가 없으면 그 사용자의 샤드 등록이 실패한 것
+    private static BulkRegisterResponse registered(String userId, Long rank) {
+        if (rank == null) {
+            return BulkRegisterResponse.failed(userId, ErrorCode.QUEUE_OPERATION_FAILED.getCode());
+        }
+        if (rank == UserQueueService.ALREADY_REGISTERED) {
+            return BulkRegisterResponse.failed(userId, ErrorCode.QUEUE_ALREADY_REGISTER_USER.getCode());
+        }
+        return BulkRegisterResponse.registered(userId, rank);
+    }
+
+    // near-cache 에 있는 사용자는 바로 답하고, 나머지만 샤드별로 ZMSCORE 한 번씩 조회해서 캐시에 넣는다.
+    public Flux<BulkAllowedResponse> isAllowed(final String queue, final Flux<String> userIds) {
+        return userIds.buffer(queueProperties.getBulk().getChunkSize())
+                .concatMap(chunk -> isAllowed(queue, chunk));
+    }
+
+    private Flux<BulkAllowedResponse> isAllowed(final String queue, final List<String> userIds) {
+        long now = System.currentTimeMillis();
+        long proceedTtl = queueProperties.getProceedTtl().toMillis();
+        Map<String, Boolean> cached = new HashMap<>();
+        Map<String, List<String>> usersByShard = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            Long allowedUntil = allowedUserCache.getAllowedUntil(queue, userId);
+            if (allowedUntil != null) {
+                cached.put(userId, allowedUntil > now);
+            } else if (!cached.containsKey(userId)) {
+                usersByShard.computeIfAbsent(queueKeys.shardOf(queue, userId).proceedKey(), key -> new ArrayList<>()).add(userId);
+            }
+        }
+
+        return Flux.fromIterable(usersByShard.entrySet())
+                .flatMap(shard -> reactiveRedisTemplate.opsForZSet().score(shard.getKey(), shard.getValue().toArray())
+                        .map(scores -> {
+                            Map<String, Boolean> allowed = new HashMap<>();
+                            for (int i = 0; i < scores.size(); i++) {
+                                String userId = shard.getValue().get(i);
+                                Double allowedAt = scores.get(i);
+                                Long allowedUntil = allowedAt == null ? null : allowedAt.longValue() + proceedTtl;
+                                boolean isAllowed = allowedUntil != null && allowedUntil > now;
+                                allowedUserCache.put(queue, userId, isAllowed ? allowedUntil : null);
+                                allowed.put(userId, isAllowed);
+                            }
+                            return allowed;
+                        }))
+                .reduce(cached, (all, shard) -> {
+                    all.putAll(shard);
+                    return all;
+                })
+                .flatMapMany(allowed -> Flux.fromIterable(userIds)
+                        .map(userId -> BulkAllowedResponse.of(userId, allowed.get(userId))))
+                .onErrorResume(e -> Flux.fromIterable(userIds)
+                        .map(userId -> BulkAllowedResponse.failed(userId, errorCode(e))));
+    }
+
+    // approximate 모드이면 메모리에서 계산되는 사용자는 Redis 를 조회하지 않는다.
+    public Flux<BulkRankResponse> getRank(final String queue, final Flux<String> userIds) {
+        return userIds.buffer(queueProperties.getBulk().getChunkSize())
+                .concatMap(chunk -> Flux.fromIterable(chunk)
+                        .flatMapSequential(userId -> userQueueService.getRank(queue, userId)
+                                .map(rank -> BulkRankResponse.of(userId, rank))
+                                .onErrorResume(e -> Mono.just(BulkRankResponse.failed(userId, errorCode(e)))), chunk.size()));
+    }
+
+    // chunk 의 시작 score 는 현재 시각과 이전 chunk 의 마지막 score 다음 중 늦은 쪽
+    private static class ScoreSequence {
+        private double end;
+
+        double reserve(int size) {
+            double base = Math.max(System.currentTimeMillis(), end);
+            end = base + size * SCORE_STEP;
+            return base;
+        }
+    }
+
+    private String errorCode(Throwable e) {
+        if (e instanceof ApplicationException applicationException) {
+            return applicationException.getCode();
+        }
+        log.warn("Bulk queue operation failed", e);
+        return ErrorCode.QUEUE_OPERATION_FAILED.getCode();
+    }
+}
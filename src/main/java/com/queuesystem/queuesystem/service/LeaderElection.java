@@ -0,0 +1,112 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.utils.RedisScripts;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+// Redis lease 기반 스케줄러 리더 선출
+// 여러 인스턴스 중 lease 를 가진 하나만 진입 허용을 수행한다.
+// lease 는 renewInterval 마다 연장되며, 리더가 사라지면 leaseTtl 이 지난 뒤 다른 인스턴스가 가져간다.
+// 멈췄다 깨어난 이전 리더가 늦게 보낸 쓰기는 fencing 시각(Redis 시각 기준, lease 만료보다 renewInterval 이른 시점)으로 막는다.
+@Component
+@Slf4j
+public class LeaderElection {
+    private static final String LEADER_KEY = "user:queue:scheduler:leader";
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final RedisScripts redisScripts;
+    private final QueueProperties.Leader properties;
+    @Getter
+    private final String instanceId = UUID.randomUUID().toString();
+    // 로컬에서 리더로 인정하는 마지막 시각 (System.nanoTime 기준)
+    private volatile long leaseValidUntil = System.nanoTime();
+    // Redis 시각(ms) 기준으로 이 리더의 쓰기를 인정하는 마지막 시각 (리더가 아니면 0)
+    private volatile long fenceUntil;
+    private Disposable renewal;
+
+    public LeaderElection(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, RedisScripts redisScripts,
+                          QueueProperties queueProperties) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.redisScripts = redisScripts;
+        this.properties = queueProperties.getLeader();
+    }
+
+    public boolean isLeader() {
+        return !properties.isEnabled() || System.nanoTime() - leaseValidUntil < 0;
+    }
+
+    // 진입 허용 스크립트에 넘기는 fencing 시각 (리더 선출을 쓰지 않으면 0 = 검사하지 않음, 리더가 아니면 이미 지난 시각)
+    public long getFenceUntil() {
+        return properties.isEnabled() ? Math.max(1, fenceUntil) : 0;
+    }
+
+    // lease 획득 또는 연장 시도
+    // 로컬 유효 시간은 요청을 보내기 전 시각 기준으로, 연장 주기만큼 여유를 두고 Redis 보다 먼저 끝나게 한다.
+    public Mono<Boolean> tryAcquire() {
+        long requestedAt = System.nanoTime();
+        Duration localTtl = properties.getLeaseTtl().minus(properties.getRenewInterval());
+
+        return reactiveRedisTemplate.execute(redisScripts.getAcquireLeader(), List.of(LEADER_KEY),
+                        List.of(instanceId, String.valueOf(properties.getLeaseTtl().toMillis())))
+                .next()
+                .map(redisNow -> {
+                    boolean acquired = redisNow > 0;
+                    boolean wasLeader = isLeader();
+                    leaseValidUntil = acquired ? requestedAt + localTtl.toNanos() : requestedAt;
+                    fenceUntil = acquired ? redisNow + localTtl.toMillis() : 0;
+                    if (acquired != wasLeader) {
+                        log.info("Scheduler leadership {}. instanceId={}", acquired ? "acquired" : "lost", instanceId);
+                    }
+                    return acquired;
+                })
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Boolean> release() {
+        leaseValidUntil = System.nanoTime();
+        fenceUntil = 0;
+        return reactiveRedisTemplate.execute(redisScripts.getReleaseLeader(), List.of(LEADER_KEY), List.of(instanceId))
+                .next()
+                .map(released -> released == 1)
+                .defaultIfEmpty(false);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        renewal = Flux.interval(Duration.ZERO, properties.getRenewInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> tryAcquire()
+                        .onErrorResume(e -> {
+                            log.warn("Leader lease renewal failed. instanceId={}", instanceId, e);
+                            return Mono.just(false);
+                        }))
+                .subscribe();
+    }
+
+    // 종료 시 lease 를 바로 반납해서 다른 인스턴스가 기다리지 않고 이어받게 한다.
+    @PreDestroy
+    public void stop() {
+        if (renewal == null) {
+            return;
+        }
+        renewal.dispose();
+        release().onErrorResume(e -> Mono.just(false))
+                .block(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,166 @@
+package com.queuesystem.queuesystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 진입 허용/허용 취소/피드백/자리 반납 이벤트를 Redis pub/sub 으로 모든 인스턴스에 전달하고,
+// 인스턴스 안에서는 큐별로 한 번만 계산한 tick 을 연결된 구독자들에게 나눠준다.
+// 큐별 sink 는 첫 구독자가 생길 때 만들고 마지막 구독자가 끊기면 지운다. (큐 이름은 사용자 입력)
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueueEventBus {
+    private static final String ADMISSION_CHANNEL = "user:queue:admission";
+    private static final String FEEDBACK_CHANNEL = "user:queue:feedback";
+    private static final String RELEASE_CHANNEL = "user:queue:release";
+    private static final String REVOCATION_CHANNEL = "user:queue:revocation";
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, AdmissionSink> admissionSinks = new ConcurrentHashMap<>();
+    private final Sinks.Many<AdmissionEvent> allAdmissionSink = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Many<FeedbackEvent> feedbackSink = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Many<ReleaseEvent> releaseSink = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Many<RevocationEvent> revocationSink = Sinks.many().multicast().directBestEffort();
+    private Disposable subscription;
+
+    public Mono<Long> publishAdmission(String queue, List<String> userIds) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(new AdmissionEvent(queue, userIds)))
+                .flatMap(message -> reactiveRedisTemplate.convertAndSend(ADMISSION_CHANNEL, message));
+    }
+
+    public Mono<Long> publishFeedback(String queue, double latencyMillis, double errorRate) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(new FeedbackEvent(queue, latencyMillis, errorRate)))
+                .flatMap(message -> reactiveRedisTemplate.convertAndSend(FEEDBACK_CHANNEL, message));
+    }
+
+    public Flux<FeedbackEvent> feedbacks() {
+        return feedbackSink.asFlux();
+    }
+
+    // 진입 허용 취소 (모든 인스턴스의 near-cache 에서 지우는 데 사용)
+    public Mono<Long> publishRevocation(String queue, List<String> userIds) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(new RevocationEvent(queue, userIds)))
+                .flatMap(message -> reactiveRedisTemplate.convertAndSend(REVOCATION_CHANNEL, message));
+    }
+
+    public Flux<RevocationEvent> revocations() {
+        return revocationSink.asFlux();
+    }
+
+    // 진입 허용 자리를 반납/회수한 사용자들
+    // 모든 인스턴스의 near-cache 에서 지우고, 리더는 그 큐의 빈자리를 바로 다시 채운다.
+    public Mono<Long> publishRelease(String queue, List<String> userIds) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(new ReleaseEvent(queue, userIds)))
+                .flatMap(message -> reactiveRedisTemplate.convertAndSend(RELEASE_CHANNEL, message));
+    }
+
+    public Flux<ReleaseEvent> releases() {
+        return releaseSink.asFlux();
+    }
+
+    // 모든 큐의 진입 허용 이벤트 (인스턴스 로컬 캐시 정리용)
+    public Flux<AdmissionEvent> admissions() {
+        return allAdmissionSink.asFlux();
+    }
+
+    // 구독자 수는 맵의 compute 안에서만 바꿔서, 지워지는 sink 에 새 구독자가 붙지 않게 한다.
+    public Flux<AdmissionTick> admissions(String queue) {
+        return Flux.defer(() -> {
+            AdmissionSink admissionSink = admissionSinks.compute(queue, (key, current) -> {
+                AdmissionSink next = current != null ? current : new AdmissionSink(Sinks.many().multicast().directBestEffort(), new AtomicInteger());
+                next.subscribers().incrementAndGet();
+                return next;
+            });
+            return admissionSink.sink().asFlux()
+                    .doFinally(signal -> admissionSinks.computeIfPresent(queue,
+                            (key, current) -> current.subscribers().decrementAndGet() == 0 ? null : current));
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        subscription = reactiveRedisTemplate.listenToChannel(ADMISSION_CHANNEL, FEEDBACK_CHANNEL, RELEASE_CHANNEL, REVOCATION_CHANNEL)
+                .concatMap(message -> Mono.fromCallable(() -> {
+                            dispatch(message.getChannel(), message.getMessage());
+                            return message;
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Invalid queue event. channel={}, message={}", message.getChannel(), message.getMessage(), e);
+                            return Mono.empty();
+                        }))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private void dispatch(String channel, String message) throws JsonProcessingException {
+        if (FEEDBACK_CHANNEL.equals(channel)) {
+            feedbackSink.tryEmitNext(objectMapper.readValue(message, FeedbackEvent.class));
+            return;
+        }
+        if (REVOCATION_CHANNEL.equals(channel)) {
+            revocationSink.tryEmitNext(objectMapper.readValue(message, RevocationEvent.class));
+            return;
+        }
+        if (RELEASE_CHANNEL.equals(channel)) {
+            releaseSink.tryEmitNext(objectMapper.readValue(message, ReleaseEvent.class));
+            return;
+        }
+        dispatchAdmission(objectMapper.readValue(message, AdmissionEvent.class));
+    }
+
+    // 큐별 tick 은 이벤트당 한 번만 만들고, 구독자가 없으면 건너뛴다.
+    private void dispatchAdmission(AdmissionEvent event) {
+        allAdmissionSink.tryEmitNext(event);
+
+        AdmissionSink admissionSink = admissionSinks.get(event.queue());
+        if (admissionSink == null || admissionSink.sink().currentSubscriberCount() == 0) {
+            return;
+        }
+        admissionSink.sink().tryEmitNext(new AdmissionTick(event.userIds().size(), Set.copyOf(event.userIds())));
+    }
+
+    public record AdmissionEvent(String queue, List<String> userIds) {
+    }
+
+    private record AdmissionSink(Sinks.Many<AdmissionTick> sink, AtomicInteger subscribers) {
+    }
+
+    public record RevocationEvent(String queue, List<String> userIds) {
+    }
+
+    public record ReleaseEvent(String queue, List<String> userIds) {
+    }
+
+    public record FeedbackEvent(String queue, double latencyMillis, double errorRate) {
+    }
+
+    public record AdmissionTick(int allowedCount, Set<String> allowedUserIds) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.dto.QueueStatusResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 대기 순번/진입 허용 상태 스트리밍
+// 순번은 연결 시점과 resync 주기마다 Redis 에서 조회하고, 그 사이에는 진입 허용 tick 으로 차감한다.
+// 연결이 열려 있는 동안에는 heartbeat 를 서버가 대신 갱신한다.
+// 연결된 사용자가 없는 큐는 연결 목록에서 지운다. (큐 이름은 사용자 입력)
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QueueStatusService {
+    private final UserQueueService userQueueService;
+    private final QueueEventBus queueEventBus;
+    private final QueueProperties queueProperties;
+    // 큐 -> (사용자 -> 연결 수)
+    private final Map<String, Map<String, Integer>> connectedUsers = new ConcurrentHashMap<>();
+
+    public Flux<QueueStatusResponse> streamStatus(final String queue, final String userId) {
+        AtomicLong rank = new AtomicLong(-1);
+
+        Flux<QueueStatusResponse> resync = Flux.interval(queueProperties.getStatusResyncInterval())
+                .startWith(0L)
+                .concatMap(tick -> fetchStatus(queue, userId))
+                .doOnNext(status -> rank.set(status.rank()));
+
+        Flux<QueueStatusResponse> admissions = queueEventBus.admissions(queue)
+                .handle((tick, sink) -> {
+                    if (tick.allowedUserIds().contains(userId)) {
+                        sink.next(QueueStatusResponse.admitted());
+                        return;
+                    }
+                    // 진입 허용은 항상 대기열 앞에서 일어나므로 허용된 인원만큼 앞당긴다.
+                    if (rank.get() > 0) {
+                        sink.next(QueueStatusResponse.waiting(rank.updateAndGet(current -> Math.max(1, current - tick.allowedCount()))));
+                    }
+                });
+
+        return Flux.merge(resync, admissions)
+                .distinctUntilChanged()
+                .takeUntil(status -> status.allowed() || status.rank() < 0)
+                .doOnSubscribe(subscription -> connect(queue, userId))
+                .doFinally(signal -> disconnect(queue, userId));
+    }
+
+    // 연결된 사용자의 heartbeat 를 큐마다 한 번에 갱신
+    @Scheduled(initialDelay = 5000, fixedDelay = 5000)
+    public void scheduleConnectedHeartbeat() {
+        Flux.fromIterable(connectedUsers.entrySet())
+                .filter(entry -> !entry.getValue().isEmpty())
+                .flatMap(entry -> userQueueService.updateHeartbeats(entry.getKey(), entry.getValue().keySet()))
+                .subscribe();
+    }
+
+    private Mono<QueueStatusResponse> fetchStatus(String queue, String userId) {
+        return userQueueService.isAllowed(queue, userId)
+                .flatMap(allowed -> allowed
+                        ? Mono.just(QueueStatusResponse.admitted())
+                        : userQueueService.getRank(queue, userId).map(QueueStatusResponse::waiting));
+    }
+
+    // 큐 단위 compute 안에서 바꿔서, 지워지는 목록에 새 연결이 들어가지 않게 한다.
+    private void connect(String queue, String userId) {
+        connectedUsers.compute(queue, (key, users) -> {
+            Map<String, Integer> next = users != null ? users : new ConcurrentHashMap<>();
+            next.merge(userId, 1, Integer::sum);
+            return next;
+        });
+    }
+
+    private void disconnect(String queue, String userId) {
+        connectedUsers.computeIfPresent(queue, (key, users) -> {
+            users.computeIfPresent(userId, (user, count) -> count > 1 ? count - 1 : null);
+            return users.isEmpty() ? null : users;
+        });
+    }
+}
@@ -0,0 +1,211 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.utils.QueueKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 근사 대기 순번 계산 (queue.rank.mode=approximate)
+// 순번 = (사용자의 등록 순번 - 샤드의 누적 진입 허용 인원) x (실제 대기 인원 / 아직 허용되지 않은 등록 인원) x 샤드 수
+// 등록 순번은 등록 시점에 메모리에 저장하고, 누적 등록/진입 허용 인원과 대기 인원(ZCARD)은 tick 마다 Redis 에서 읽어 온다.
+// 중간에 나간 사용자(떠남, heartbeat 만료)는 앞뒤로 고르게 나간 것으로 보고 비율로 빼므로 오차가 쌓이지 않는다.
+// 앞쪽(exactThreshold 이내)은 정확한 순번을 사용한다.
+@Component
+@RequiredArgsConstructor
+public class RankEstimator {
+    private static final Duration IDLE_QUEUE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final QueueKeys queueKeys;
+    private final QueueProperties queueProperties;
+    private final QueueEventBus queueEventBus;
+    // 큐 -> (사용자 -> 등록 순번)
+    private final Map<String, Map<String, Long>> joinSequences = new ConcurrentHashMap<>();
+    private final Map<String, QueueProgress> progresses = new ConcurrentHashMap<>();
+
+    public void recordJoin(String queue, String userId, long sequence) {
+        if (progress(queue).isEmpty()) {
+            return;
+        }
+        if (countCachedUsers() < queueProperties.getRank().getMaxCachedUsers()) {
+            joinSequences.computeIfAbsent(queue, key -> new ConcurrentHashMap<>()).put(userId, sequence);
+        }
+    }
+
+    // 캐시에 없던 사용자는 샤드 안의 정확한 순위로 등록 순번을 역산해 둔다.
+    public void recordLocalRank(String queue, String userId, long localRank) {
+        progress(queue)
+                .filter(QueueProgress::isReady)
+                .ifPresent(progress -> recordJoin(queue, userId, sequenceOf(localRank, progress.shard(queueKeys.shardOf(queue, userId).index()))));
+    }
+
+    // 근사 순번 (모르는 사용자이거나 앞쪽이면 empty)
+    public Optional<Long> estimate(String queue, String userId) {
+        Long sequence = joinSequences.getOrDefault(queue, Map.of()).get(userId);
+        QueueProgress progress = progress(queue).orElse(null);
+        if (sequence == null || progress == null || !progress.isReady()) {
+            return Optional.empty();
+        }
+
+        long rank = localRank(sequence, progress.shard(queueKeys.shardOf(queue, userId).index())) * progress.shards();
+        return rank > queueProperties.getRank().getExactThreshold() ? Optional.of(rank) : Optional.empty();
+    }
+
+    // 샤드 안의 근사 순위 (이미 진입 허용된 사용자면 0 이하)
+    // 아직 허용되지 않은 등록 인원 중 실제로 남아 있는 비율만큼 줄이고, 대기 인원을 넘지 않게 한다.
+    static long localRank(long sequence, ShardProgress shard) {
+        long ahead = sequence - shard.admitted();
+        long outstanding = shard.joined() - shard.admitted();
+        if (ahead <= 0 || outstanding <= 0) {
+            return ahead;
+        }
+        return Math.min(shard.waiting(), Math.max(1, Math.round((double) ahead * shard.waiting() / outstanding)));
+    }
+
+    // localRank 의 역산 (정확한 순위로 등록 순번을 구함)
+    static long sequenceOf(long localRank, ShardProgress shard) {
+        long outstanding = shard.joined() - shard.admitted();
+        if (shard.waiting() <= 0 || outstanding <= 0) {
+            return shard.admitted() + localRank;
+        }
+        return shard.admitted() + Math.round((double) localRank * outstanding / shard.waiting());
+    }
+
+    // 관측된 진입 허용 속도 기준 예상 대기 시간 (속도를 아직 모르거나 exact 모드이면 null)
+    public Long expectedWaitSeconds(String queue, long rank) {
+        double rate = progress(queue).map(QueueProgress::rate).orElse(0.0);
+        return rank > 0 && rate > 0 ? (long) Math.ceil(rank / rate) : null;
+    }
+
+    // 대기열을 떠났거나(떠남, heartbeat 만료) 진입 허용된 사용자의 등록 순번을 지운다.
+    public void forget(String queue, String userId) {
+        joinSequences.computeIfPresent(queue, (key, sequences) -> {
+            sequences.remove(userId);
+            return sequences.isEmpty() ? null : sequences;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribeAdmission() {
+        queueEventBus.admissions()
+                .subscribe(event -> event.userIds().forEach(userId -> forget(event.queue(), userId)));
+    }
+
+    // 최근 순번 조회가 있었던 큐만 누적 등록/진입 허용 인원과 대기 인원을 갱신
+    @Scheduled(initialDelay = 3000, fixedDelay = 3000)
+    public void scheduleRefreshProgress() {
+        long now = System.nanoTime();
+        progresses.entrySet().removeIf(entry -> now - entry.getValue().lastAccessNanos > IDLE_QUEUE_TIMEOUT.toNanos());
+        joinSequences.keySet().removeIf(queue -> !progresses.containsKey(queue));
+
+        Flux.fromIterable(progresses.entrySet())
+                .flatMap(entry -> Flux.fromIterable(queueKeys.shards(entry.getKey()))
+                        .flatMap(shard -> Mono.zip(counter(shard.admittedKey()), counter(shard.joinedKey()),
+                                        reactiveRedisTemplate.opsForZSet().size(shard.waitKey()).defaultIfEmpty(0L))
+                                .map(counts -> Map.entry(shard.index(), new ShardProgress(counts.getT1(), counts.getT2(), counts.getT3()))))
+                        .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                        .doOnNext(byShard -> entry.getValue().update(byShard)))
+                .then()
+                .onErrorResume(e -> Mono.empty())
+                .subscribe();
+    }
+
+    private Mono<Long> counter(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L);
+    }
+
+    // approximate 모드에서만 큐별 진행 상황을 보관한다.
+    // 큐 이름은 사용자 입력이므로 최대 maxQueues 개 큐까지만 보관하고 (넘치면 empty), 조회가 없는 큐는 IDLE_QUEUE_TIMEOUT 뒤에 지운다.
+    private Optional<QueueProgress> progress(String queue) {
+        QueueProperties.Rank rank = queueProperties.getRank();
+        if (rank.getMode() != QueueProperties.Rank.Mode.APPROXIMATE) {
+            return Optional.empty();
+        }
+        QueueProgress progress = progresses.get(queue);
+        if (progress == null) {
+            if (progresses.size() >= rank.getMaxQueues()) {
+                return Optional.empty();
+            }
+            progress = progresses.computeIfAbsent(queue, key -> new QueueProgress(queueKeys.shardCount(key)));
+        }
+        progress.lastAccessNanos = System.nanoTime();
+        return Optional.of(progress);
+    }
+
+    long countCachedUsers() {
+        return joinSequences.values().stream().mapToLong(Map::size).sum();
+    }
+
+    int countTrackedQueues() {
+        return progresses.size();
+    }
+
+    // 샤드의 누적 진입 허용 인원, 누적 등록 인원, 현재 대기 인원
+    record ShardProgress(long admitted, long joined, long waiting) {
+    }
+
+    // 큐별 샤드 진행 상황과 진입 허용 속도 (초당 인원, 지수 이동 평균)
+    private static class QueueProgress {
+        private static final double SMOOTHING = 0.3;
+
+        private final int shards;
+        private volatile ShardProgress[] progresses;
+        private volatile double rate;
+        private volatile long lastAccessNanos = System.nanoTime();
+        private long lastUpdateNanos;
+        private long lastTotal;
+
+        QueueProgress(int shards) {
+            this.shards = shards;
+        }
+
+        boolean isReady() {
+            return progresses != null;
+        }
+
+        int shards() {
+            return shards;
+        }
+
+        ShardProgress shard(int shard) {
+            return progresses[shard];
+        }
+
+        double rate() {
+            return rate;
+        }
+
+        synchronized void update(Map<Integer, ShardProgress> byShard) {
+            ShardProgress[] next = new ShardProgress[shards];
+            Arrays.fill(next, new ShardProgress(0, 0, 0));
+            byShard.forEach((shard, progress) -> next[shard] = progress);
+
+            long now = System.nanoTime();
+            long total = 0;
+            for (ShardProgress progress : next) {
+                total += progress.admitted();
+            }
+            if (progresses != null) {
+                double observed = (total - lastTotal) * 1_000_000_000.0 / Math.max(1, now - lastUpdateNanos);
+                rate = rate == 0 ? observed : rate + SMOOTHING * (observed - rate);
+            }
+            progresses = next;
+            lastTotal = total;
+            lastUpdateNanos = now;
+        }
+    }
+}
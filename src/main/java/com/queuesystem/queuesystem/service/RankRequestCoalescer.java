@@ -0,0 +1,39 @@
+package com.queuesystem.queuesystem.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.queuesystem.queuesystem.config.QueueProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// 같은 사용자의 순번 조회를 rankCoalesceWindow 동안 Redis 조회 한 번으로 합침
+// 진행 중인 조회가 있으면 그 결과를 함께 기다리고, 끝난 결과는 window 동안 재사용한다. (실패한 조회는 바로 버린다.)
+@Component
+public class RankRequestCoalescer {
+    // 끄면 null
+    private final AsyncCache<Key, Long> ranks;
+
+    public RankRequestCoalescer(QueueProperties queueProperties) {
+        Duration window = queueProperties.getRateLimit().getRankCoalesceWindow();
+        this.ranks = window.isZero() || window.isNegative()
+                ? null
+                : Caffeine.newBuilder()
+                        .maximumSize(queueProperties.getRateLimit().getMaxTrackedKeys())
+                        .expireAfterWrite(window)
+                        .buildAsync();
+    }
+
+    // 먼저 조회를 시작한 요청이 취소되어도 함께 기다리는 요청에는 영향이 없도록 취소를 전달하지 않는다.
+    public Mono<Long> coalesce(String queue, String userId, Supplier<Mono<Long>> lookup) {
+        if (ranks == null) {
+            return lookup.get();
+        }
+        return Mono.fromFuture(() -> ranks.get(new Key(queue, userId), (key, executor) -> lookup.get().toFuture()), true);
+    }
+
+    private record Key(String queue, String userId) {
+    }
+}
@@ -1,124 +1,417 @@
 package com.queuesystem.queuesystem.service;
 
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.exception.ApplicationException;
 import com.queuesystem.queuesystem.exception.ErrorCode;
+import com.queuesystem.queuesystem.journal.QueueJournal;
+import com.queuesystem.queuesystem.metrics.QueueMetrics;
+import com.queuesystem.queuesystem.stats.QueueMetric;
+import com.queuesystem.queuesystem.stats.QueueStatsRecorder;
+import com.queuesystem.queuesystem.utils.QueueKeys;
 import com.queuesystem.queuesystem.utils.RedisUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuples;
 
-import java.lang.management.ManagementFactory;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserQueueService {
+    // 일괄 등록 결과에서 이미 등록된 사용자의 순위
+    public static final long ALREADY_REGISTERED = -1;
+
     private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
     private final RedisUtils redisUtils;
-    private final String USER_QUEUE_WAIT_KEY = "user:queue:%s:wait";
-    private final String USER_QUEUE_WAIT_FOR_SCAN = "user:queue:*:wait";
-    private final String USER_QUEUE_PROCEED_KEY = "user:queue:%s:proceed";
+    private final QueueProperties queueProperties;
+    private final QueueEventBus queueEventBus;
+    private final QueueKeys queueKeys;
+    private final RankEstimator rankEstimator;
+    private final AllowedUserCache allowedUserCache;
+    private final QueueMetrics queueMetrics;
+    private final AdmissionTokenService admissionTokenService;
+    private final QueueJournal queueJournal;
+    private final RankRequestCoalescer rankRequestCoalescer;
+    private final QueueStatsRecorder queueStatsRecorder;
 
     // 대기열 등록
     public Mono<Long> registerWaitQueue(final String queue, final String userId) {
-        String key = USER_QUEUE_WAIT_KEY.formatted(queue);
-        double unixTimestamp = Instant.now().getEpochSecond();
+        return registerWaitQueue(queue, userId, null);
+    }
 
-        return redisUtils.isUserAlreadyRegistered(key, userId)
-                .flatMap(alreadyRegistered -> alreadyRegistered
-                        ? Mono.error(ErrorCode.QUEUE_ALREADY_REGISTER_USER.build())
-                        : redisUtils.addUserToQueue(key, userId, unixTimestamp));
+    // score 는 등록 시각(ms)이며, 샤드가 여러 개인 큐는 샤드 간 순서도 이 값으로 정해진다.
+    // 우선순위 레인으로 등록하면 등록 시각을 레인의 headStart 만큼 앞당긴다. (그만큼 먼저 줄을 선 것으로 취급)
+    public Mono<Long> registerWaitQueue(final String queue, final String userId, final String lane) {
+        if (lane != null && !queueProperties.getLanes().containsKey(lane)) {
+            return Mono.error(ErrorCode.QUEUE_UNKNOWN_LANE.build(lane));
+        }
+        Duration headStart = lane == null ? Duration.ZERO : queueProperties.getLanes().get(lane).getHeadStart();
+        return register(queue, userId, System.currentTimeMillis() - headStart.toMillis(), headStart.isZero());
     }
 
-    public Mono<Long> allowUser(final String queue, final Long count) {
-        return reactiveRedisTemplate.opsForZSet()
-                .popMin(USER_QUEUE_WAIT_KEY.formatted(queue), count)
-                .flatMap(member -> reactiveRedisTemplate.opsForZSet()
-                        .add(USER_QUEUE_PROCEED_KEY.formatted(queue), member.getValue(), Instant.now().getEpochSecond()))
-                .count()
-                .flatMap(addedCount -> {
-                    // Proceed 키의 TTL 설정 (10분)
-                    // 사용자의 동작을 감지해서(Health Check) TTL을 갱신하는 방법
-                    // 접속 이후, 모든 요청에 상태 체크?
-                    String proceedKey = USER_QUEUE_PROCEED_KEY.formatted(queue);
-                    return reactiveRedisTemplate.expire(proceedKey, Duration.ofMinutes(10))
-                            .thenReturn(addedCount);
+    // 일괄 등록: 같은 샤드의 사용자는 스크립트 한 번으로 등록한다. (users: 사용자 ID -> 등록 시각(score), 입력 순서)
+    // 사용자 ID -> 순위를 반환하며, 이미 등록된 사용자는 ALREADY_REGISTERED 이고 등록에 실패한 샤드의 사용자는 빠진다.
+    public Mono<Map<String, Long>> registerWaitQueueAll(final String queue, final Map<String, Double> users) {
+        Map<QueueKeys.Shard, List<String>> usersByShard = new LinkedHashMap<>();
+        users.keySet().forEach(userId -> usersByShard
+                .computeIfAbsent(queueKeys.shardOf(queue, userId), shard -> new ArrayList<>())
+                .add(userId));
+
+        Mono<Map<String, Long>> register = Flux.fromIterable(usersByShard.entrySet())
+                .flatMap(shard -> registerAll(queue, shard.getKey(), shard.getValue(), users)
+                        .onErrorResume(e -> {
+                            log.warn("Bulk registration failed. queue={}, shard={}", queue, shard.getKey().tag(), e);
+                            return Flux.empty();
+                        }))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+
+        return queueMetrics.timed("register-bulk", register);
+    }
+
+    private Flux<Map.Entry<String, Long>> registerAll(final String queue, final QueueKeys.Shard shard, final List<String> userIds,
+                                                       final Map<String, Double> users) {
+        List<Double> scores = userIds.stream().map(users::get).toList();
+
+        return redisUtils.registerUsers(shard.waitKey(), shard.heartbeatKey(), shard.joinedKey(), userIds, scores)
+                .flatMapMany(registrations -> {
+                    List<Map.Entry<String, Long>> ranks = new ArrayList<>(userIds.size());
+                    boolean first = false;
+                    for (int i = 0; i < userIds.size(); i++) {
+                        String userId = userIds.get(i);
+                        RedisUtils.Registration registration = registrations.get(i);
+                        if (registration.rank() < 0) {
+                            queueMetrics.duplicateRegistration();
+                            ranks.add(Map.entry(userId, ALREADY_REGISTERED));
+                            continue;
+                        }
+                        queueJournal.register(queue, userId, scores.get(i));
+                        rankEstimator.recordJoin(queue, userId, registration.sequence());
+                        first |= registration.rank() == 1;
+                        ranks.add(Map.entry(userId, registration.rank()));
+                    }
+                    queueStatsRecorder.record(queue, QueueMetric.JOIN, ranks.stream().filter(rank -> rank.getValue() > 0).count());
+
+                    return (first ? reactiveRedisTemplate.opsForSet().add(QueueKeys.USER_QUEUE_ACTIVE_KEY, queue).then() : Mono.<Void>empty())
+                            .thenMany(Flux.fromIterable(ranks));
+                })
+                .flatMapSequential(rank -> rank.getValue() < 0 || queueKeys.shardCount(queue) == 1
+                        ? Mono.just(rank)
+                        : countAhead(queue, shard, users.get(rank.getKey())).map(ahead -> Map.entry(rank.getKey(), ahead + rank.getValue())));
+    }
+
+    // 첫 번째 대기자인 경우에만 활성 큐 목록에 등록 (대기열이 비어 있다가 채워지는 시점)
+    // 레인 사용자는 등록 순번과 실제 순번이 달라서 approximate 순번 계산에서 뺀다. (inOrder = false)
+    private Mono<Long> register(final String queue, final String userId, final double score, final boolean inOrder) {
+        QueueKeys.Shard shard = queueKeys.shardOf(queue, userId);
+        Mono<Long> register = redisUtils.registerUser(shard.waitKey(), shard.heartbeatKey(), shard.joinedKey(), userId, score)
+                .doOnNext(registration -> {
+                    queueJournal.register(queue, userId, score);
+                    queueStatsRecorder.record(queue, QueueMetric.JOIN, 1);
+                    if (inOrder) {
+                        rankEstimator.recordJoin(queue, userId, registration.sequence());
+                    }
+                })
+                .map(RedisUtils.Registration::rank)
+                .flatMap(rank -> rank == 1
+                        ? reactiveRedisTemplate.opsForSet().add(QueueKeys.USER_QUEUE_ACTIVE_KEY, queue).thenReturn(rank)
+                        : Mono.just(rank))
+                .flatMap(rank -> queueKeys.shardCount(queue) == 1
+                        ? Mono.just(rank)
+                        : countAhead(queue, shard, score).map(ahead -> ahead + rank))
+                .doOnError(e -> e instanceof ApplicationException ex
+                                && ErrorCode.QUEUE_ALREADY_REGISTER_USER.getCode().equals(ex.getCode()),
+                        e -> queueMetrics.duplicateRegistration());
+
+        return queueMetrics.timed("register", register);
+    }
+
+    // 진입 허용 후 실패한 사용자를 requeueLane 으로 다시 줄 세움 (진입 허용 상태가 아니면 false)
+    // 다른 인스턴스의 near-cache 는 허용 취소 이벤트로 지운다.
+    // 다시 줄 세우기에 실패하면 지웠던 진입 허용 상태와 lease 를 원래 score 로 되돌리고 에러를 그대로 전달한다. (대기열/진입 허용 어디에도 없는 상태를 남기지 않음)
+    public Mono<Boolean> requeueUser(final String queue, final String userId) {
+        QueueKeys.Shard shard = queueKeys.shardOf(queue, userId);
+
+        return Mono.zip(reactiveRedisTemplate.opsForZSet().score(shard.proceedKey(), userId),
+                        reactiveRedisTemplate.opsForZSet().score(shard.leaseKey(), userId).map(Optional::of).defaultIfEmpty(Optional.empty()))
+                .flatMap(scores -> removeFromProceed(queue, userId)
+                        .filter(removed -> removed > 0)
+                        .flatMap(removed -> registerWaitQueue(queue, userId, queueProperties.getRequeueLane())
+                                .onErrorResume(e -> restoreProceed(queue, shard, userId, scores.getT1(), scores.getT2())
+                                        .then(Mono.<Long>error(e)))))
+                .flatMap(rank -> queueEventBus.publishRevocation(queue, List.of(userId)).thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Void> restoreProceed(final String queue, final QueueKeys.Shard shard, final String userId,
+                                      final double allowedAt, final Optional<Double> leasedAt) {
+        return reactiveRedisTemplate.opsForZSet().add(shard.proceedKey(), userId, allowedAt)
+                .then(leasedAt.map(score -> reactiveRedisTemplate.opsForZSet().add(shard.leaseKey(), userId, score)).orElse(Mono.just(true)))
+                .doOnNext(restored -> queueJournal.admit(queue, List.of(userId), (long) allowedAt))
+                .onErrorResume(e -> {
+                    log.warn("Restoring proceed state after failed requeue failed. queue={}, userId={}", queue, userId, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // 대기열 앞쪽 사용자를 진입 허용 상태로 이동 (허용된 사용자 ID 반환)
+    // 진입 허용 score 는 허용 시각(ms)이며, 사용자별로 proceedTtl 이 지나면 만료된다.
+    public Mono<List<String>> allowUser(final String queue, final Long count) {
+        return allowUser(queue, count, 0);
+    }
+
+    // 스케줄러는 리더 lease 의 fencing 시각을 넘겨서, lease 가 끝난 뒤 늦게 도착한 실행은 Redis 에서 무시되게 한다.
+    public Mono<List<String>> allowUser(final String queue, final long count, final long fenceUntil) {
+        List<QueueKeys.Shard> shards = queueKeys.shards(queue);
+        long now = System.currentTimeMillis();
+        Mono<List<String>> allowed = (shards.size() == 1
+                ? allowUser(shards.get(0), count, now, fenceUntil)
+                : allowUserAcrossShards(shards, count, now, fenceUntil))
+                .doOnNext(users -> {
+                    queueJournal.admit(queue, users, now);
+                    queueStatsRecorder.record(queue, QueueMetric.ADMIT, users.size());
                 });
+
+        return queueMetrics.timed("allow", allowed.flatMap(users -> users.isEmpty()
+                ? Mono.just(users)
+                : reactiveRedisTemplate.opsForZSet().add(QueueKeys.USER_QUEUE_PROCEEDING_KEY, queue, now)
+                        .then(queueEventBus.publishAdmission(queue, users))
+                        .thenReturn(users)));
+    }
+
+    private Mono<List<String>> allowUser(final QueueKeys.Shard shard, final long count, final long now, final long fenceUntil) {
+        return redisUtils.moveUsersToProceed(shard.waitKey(), shard.proceedKey(), shard.heartbeatKey(), shard.admittedKey(),
+                shard.leaseKey(), count, now, queueProperties.getProceedTtl(), queueProperties.getReapBatchSize(), fenceUntil);
+    }
+
+    // 샤드별 앞쪽 count 명을 score 순으로 합쳐서 전체 FIFO 기준 앞쪽 count 명을 고르고,
+    // 샤드마다 고른 인원만큼만 이동한다. (그 사이에 레인 사용자가 앞쪽에 끼어들면 그 사용자가 대신 이동한다.)
+    private Mono<List<String>> allowUserAcrossShards(final List<QueueKeys.Shard> shards, final long count, final long now,
+                                                     final long fenceUntil) {
+        return Flux.fromIterable(shards)
+                .flatMap(shard -> reactiveRedisTemplate.opsForZSet()
+                        .rangeWithScores(shard.waitKey(), Range.closed(0L, count - 1))
+                        .map(head -> Tuples.of(shard.index(), head.getScore())))
+                .sort(Comparator.comparingDouble(head -> head.getT2()))
+                .take(count)
+                .groupBy(head -> head.getT1())
+                .flatMap(group -> group.count().map(permits -> Tuples.of(group.key(), permits)))
+                .flatMap(permits -> allowUser(shards.get(permits.getT1()), permits.getT2(), now, fenceUntil))
+                .flatMapIterable(users -> users)
+                .collectList();
     }
 
     // 진입이 가능한 상태인지 조회
     public Mono<Boolean> isAllowed(final String queue, final String userId) {
-        return reactiveRedisTemplate.opsForZSet().rank(USER_QUEUE_PROCEED_KEY.formatted(queue), userId)
-                .defaultIfEmpty(- 1L)
-                .map(rank -> rank >= 0);
+        return getAllowedUntil(queue, userId)
+                .map(allowedUntil -> true)
+                .defaultIfEmpty(false);
+    }
+
+    // 진입 허용 만료 시각(ms), 허용되지 않았으면 empty
+    // near-cache 에 있으면 Redis 를 조회하지 않는다.
+    public Mono<Long> getAllowedUntil(final String queue, final String userId) {
+        long now = System.currentTimeMillis();
+        Long cached = allowedUserCache.getAllowedUntil(queue, userId);
+        if (cached != null) {
+            return cached > now ? Mono.just(cached) : Mono.empty();
+        }
+
+        return queueMetrics.timed("allowed", reactiveRedisTemplate.opsForZSet().score(queueKeys.shardOf(queue, userId).proceedKey(), userId)
+                .map(allowedAt -> allowedAt.longValue() + queueProperties.getProceedTtl().toMillis())
+                .filter(allowedUntil -> allowedUntil > now)
+                .doOnNext(allowedUntil -> allowedUserCache.put(queue, userId, allowedUntil))
+                .switchIfEmpty(Mono.fromRunnable(() -> allowedUserCache.put(queue, userId, null))));
+    }
+
+    // 강제 로그아웃: 진입 허용 상태를 지우고, 이미 발급한 진입 토큰을 폐기 목록에 올린다.
+    // 다른 인스턴스의 near-cache 도 허용 취소 이벤트로 지워서, 그 인스턴스에서 새 토큰을 발급받지 못하게 한다.
+    public Mono<Void> revokeUser(final String queue, final String userId) {
+        return removeFromProceed(queue, userId)
+                .then(admissionTokenService.revoke(queue, userId))
+                .then(queueEventBus.publishRevocation(queue, List.of(userId)))
+                .then();
+    }
+
+    // 진입한 사용자가 이용을 마치고 자리를 반납 (진입 허용 상태가 아니었으면 false)
+    // 발급한 진입 토큰은 폐기하고, 비워진 자리는 리더가 다음 주기를 기다리지 않고 다시 채운다.
+    public Mono<Boolean> releaseUser(final String queue, final String userId) {
+        return queueMetrics.timed("release", removeFromProceed(queue, userId)
+                .filter(removed -> removed > 0)
+                .flatMap(removed -> admissionTokenService.revoke(queue, userId)
+                        .then(queueEventBus.publishRelease(queue, List.of(userId)))
+                        .thenReturn(true))
+                .defaultIfEmpty(false));
+    }
+
+    // 진입 허용 사용자의 lease 갱신 (lease 가 없으면 false)
+    // lease 를 갱신해도 진입 허용 유효 시간(proceedTtl)은 늘어나지 않는다.
+    public Mono<Boolean> renewLease(final String queue, final String userId) {
+        return queueMetrics.timed("lease",
+                redisUtils.touchHeartbeat(queueKeys.shardOf(queue, userId).leaseKey(), userId, System.currentTimeMillis()));
+    }
+
+    // lease 갱신이 끊긴 진입 허용 사용자의 자리를 샤드마다 최대 reapBatchSize 명 회수
+    // 회수한 사용자가 나중에 돌아와도 들어오지 못하도록 진입 토큰도 폐기하고, 반납 이벤트로 알려서 바로 다시 채운다.
+    public Mono<Long> reclaimAbandoned(final String queue) {
+        long staleBefore = System.currentTimeMillis() - queueProperties.getLease().getTimeout().toMillis();
+
+        return Flux.fromIterable(queueKeys.shards(queue))
+                .flatMap(shard -> redisUtils.evictStaleUsers(shard.proceedKey(), shard.leaseKey(),
+                        staleBefore, queueProperties.getReapBatchSize()))
+                .flatMap(users -> Flux.fromIterable(users)
+                        .doOnNext(userId -> {
+                            allowedUserCache.invalidate(queue, userId);
+                            queueJournal.revoke(queue, userId);
+                        })
+                        .flatMap(userId -> admissionTokenService.revoke(queue, userId))
+                        .then(users.isEmpty() ? Mono.<Long>empty() : queueEventBus.publishRelease(queue, users))
+                        .thenReturn((long) users.size()))
+                .reduce(0L, Long::sum);
     }
 
+    // 진입 허용 상태와 lease 를 함께 지운다. (지운 인원 반환)
+    private Mono<Long> removeFromProceed(final String queue, final String userId) {
+        QueueKeys.Shard shard = queueKeys.shardOf(queue, userId);
+
+        return Mono.zip(reactiveRedisTemplate.opsForZSet().remove(shard.proceedKey(), userId),
+                        reactiveRedisTemplate.opsForZSet().remove(shard.leaseKey(), userId))
+                .map(removed -> removed.getT1())
+                .doOnNext(removed -> {
+                    allowedUserCache.invalidate(queue, userId);
+                    queueJournal.revoke(queue, userId);
+                });
+    }
+
+    // 유효 시간이 지나지 않은 진입 허용 인원
+    public Mono<Long> countProceeding(final String queue) {
+        long expiredBefore = System.currentTimeMillis() - queueProperties.getProceedTtl().toMillis();
+
+        return Flux.fromIterable(queueKeys.shards(queue))
+                .flatMap(shard -> reactiveRedisTemplate.opsForZSet()
+                        .count(shard.proceedKey(), Range.rightUnbounded(Range.Bound.exclusive((double) expiredBefore))))
+                .reduce(0L, Long::sum);
+    }
+
+    // approximate 모드에서는 메모리에 있는 값으로 계산하고, 앞쪽이거나 모르는 사용자만 Redis 에서 조회한다.
+    // 같은 사용자의 조회가 짧은 시간 안에 겹치면 Redis 조회는 한 번만 한다.
     public Mono<Long> getRank(final String queue, final String userId) {
-        return reactiveRedisTemplate.opsForZSet().rank(USER_QUEUE_WAIT_KEY.formatted(queue), userId)
-                .defaultIfEmpty(-1L)
-                .map(rank -> rank >= 0 ? rank + 1 : rank);
+        if (queueProperties.getRank().getMode() == QueueProperties.Rank.Mode.APPROXIMATE) {
+            Optional<Long> estimated = rankEstimator.estimate(queue, userId);
+            if (estimated.isPresent()) {
+                return Mono.just(estimated.get());
+            }
+        }
+        return queueMetrics.timed("rank", rankRequestCoalescer.coalesce(queue, userId, () -> getExactRank(queue, userId)));
     }
 
-    @Scheduled(initialDelay = 5000, fixedDelay = 3000)
-    public void scheduleAllowUser() {
-        // 부하율 계산
-        double loadRate = calculateLoadRate();
+    // 샤드가 여러 개인 큐는 다른 샤드에서 score 가 더 작은 대기자 수를 더해서 전체 순번을 구한다.
+    // (같은 ms 에 등록된 다른 샤드 사용자는 뒤로 계산되므로 근사값)
+    public Mono<Long> getExactRank(final String queue, final String userId) {
+        QueueKeys.Shard shard = queueKeys.shardOf(queue, userId);
+        Mono<Long> rank = reactiveRedisTemplate.opsForZSet().rank(shard.waitKey(), userId)
+                .map(index -> index + 1)
+                .doOnNext(local -> rankEstimator.recordLocalRank(queue, userId, local));
 
-        // 동적으로 처리량 조정
-        long maxAllowUserCount = calculateMaxAllowUserCount(loadRate);
+        if (queueKeys.shardCount(queue) > 1) {
+            rank = rank.flatMap(local -> reactiveRedisTemplate.opsForZSet().score(shard.waitKey(), userId)
+                    .flatMap(score -> countAhead(queue, shard, score))
+                    .map(ahead -> ahead + local));
+        }
+        return rank.defaultIfEmpty(-1L);
+    }
 
-        reactiveRedisTemplate.scan(ScanOptions.scanOptions()
-                        .match(USER_QUEUE_WAIT_FOR_SCAN)
-                        .count(100)
-                        .build())
-                .map(key -> key.split(":")[2])
-                .flatMap(queue -> allowUser(queue, maxAllowUserCount).map(allowed -> Tuples.of(queue, allowed)))
-                .subscribe();
+    private Mono<Long> countAhead(final String queue, final QueueKeys.Shard self, final double score) {
+        return Flux.fromIterable(queueKeys.shards(queue))
+                .filter(shard -> shard.index() != self.index())
+                .flatMap(shard -> reactiveRedisTemplate.opsForZSet()
+                        .count(shard.waitKey(), Range.leftUnbounded(Range.Bound.exclusive(score))))
+                .reduce(0L, Long::sum);
     }
 
-    private double calculateLoadRate() {
-        // 서버의 CPU 및 메모리 사용량 측정
-        double cpuLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage(); // CPU 부하율
-        double memoryUsage = getMemoryUsage(); // 메모리 사용률 (사용량 / 최대 메모리)
+    // heartbeat 가 끊긴 대기 사용자를 샤드마다 최대 reapBatchSize 명 제거
+    public Mono<Long> evictStaleUsers(final String queue) {
+        long staleBefore = System.currentTimeMillis() - queueProperties.getHeartbeatTimeout().toMillis();
 
-        // 부하율 계산 (CPU와 메모리 사용률 평균)
-        return Math.min(1.0, (cpuLoad + memoryUsage) / 2);
+        return Flux.fromIterable(queueKeys.shards(queue))
+                .flatMap(shard -> redisUtils.evictStaleUsers(shard.waitKey(), shard.heartbeatKey(),
+                        staleBefore, queueProperties.getReapBatchSize()))
+                .doOnNext(users -> {
+                    users.forEach(userId -> rankEstimator.forget(queue, userId));
+                    queueJournal.expire(queue, users);
+                    queueStatsRecorder.record(queue, QueueMetric.EVICT, users.size());
+                })
+                .map(users -> (long) users.size())
+                .reduce(0L, Long::sum);
     }
 
-    private double getMemoryUsage() {
-        Runtime runtime = Runtime.getRuntime();
-        double usedMemory = runtime.totalMemory() - runtime.freeMemory();
-        return usedMemory / runtime.maxMemory();
+    // 대기 사용자가 있는 큐 목록
+    public Flux<String> findActiveQueues() {
+        return reactiveRedisTemplate.opsForSet().members(QueueKeys.USER_QUEUE_ACTIVE_KEY);
     }
 
-    private Long calculateMaxAllowUserCount(double loadRate) {
-        // 최대 처리량 설정 (예: 10명)
-        long maxUserCapacity = 10;
+    // 대기열이 비었으면 활성 큐 목록에서 제거
+    // 제거 직후 다른 요청이 등록했을 수 있으므로 한 번 더 확인해서 되돌린다.
+    public Mono<Boolean> deactivateIfEmpty(final String queue) {
+        return countWaiting(queue)
+                .filter(size -> size == 0)
+                .flatMap(empty -> reactiveRedisTemplate.opsForSet().remove(QueueKeys.USER_QUEUE_ACTIVE_KEY, queue))
+                .flatMap(removed -> countWaiting(queue))
+                .flatMap(size -> size > 0
+                        ? reactiveRedisTemplate.opsForSet().add(QueueKeys.USER_QUEUE_ACTIVE_KEY, queue).thenReturn(false)
+                        : Mono.just(true))
+                .defaultIfEmpty(false);
+    }
 
-        // 선형 모델로 처리량 조정
-        return Math.max(1, (long) (maxUserCapacity * (1 - loadRate)));
+    // 대기 인원 (모든 샤드 합계)
+    public Mono<Long> countWaiting(final String queue) {
+        return Flux.fromIterable(queueKeys.shards(queue))
+                .flatMap(shard -> reactiveRedisTemplate.opsForZSet().size(shard.waitKey()))
+                .reduce(0L, Long::sum);
     }
 
+    // 사용자별 마지막 접속 시각 갱신
     public Mono<Boolean> updateHeartbeat(String queue, String userId) {
-        String waitKey = USER_QUEUE_WAIT_KEY.formatted(queue);
+        return queueMetrics.timed("heartbeat",
+                redisUtils.touchHeartbeat(queueKeys.shardOf(queue, userId).heartbeatKey(), userId, System.currentTimeMillis()));
+    }
+
+    // 스트림으로 연결된 사용자들의 heartbeat 를 샤드별로 한 번에 갱신
+    public Mono<Void> updateHeartbeats(String queue, Collection<String> userIds) {
+        long now = System.currentTimeMillis();
 
-        return reactiveRedisTemplate.expire(waitKey, Duration.ofSeconds(10));
+        return Flux.fromIterable(userIds)
+                .groupBy(userId -> queueKeys.shardOf(queue, userId).heartbeatKey())
+                .flatMap(group -> group.collectList()
+                        .flatMap(users -> redisUtils.touchHeartbeats(group.key(), users, now)))
+                .then();
     }
 
     // 대기열에서 사용자 제거
     public Mono<Void> removeUserFromQueue(String queue, String userId) {
-        String waitKey = USER_QUEUE_WAIT_KEY.formatted(queue);
+        QueueKeys.Shard shard = queueKeys.shardOf(queue, userId);
+        rankEstimator.forget(queue, userId);
+        queueJournal.leave(queue, userId);
         return reactiveRedisTemplate.opsForZSet()
-                .remove(waitKey, userId)
+                .remove(shard.waitKey(), userId)
+                .doOnNext(removed -> queueStatsRecorder.record(queue, QueueMetric.LEAVE, removed))
+                .then(reactiveRedisTemplate.opsForZSet().remove(shard.heartbeatKey(), userId))
                 .then();
     }
 
@@ -0,0 +1,32 @@
+package com.queuesystem.queuesystem.service.admission;
+
+// 큐별 진입 허용 속도 제어 전략
+// 스케줄러가 tick 마다 permits 를 호출해서 이번에 허용할 인원을 정한다.
+// 구현체는 큐마다 하나씩 만들어지며, 스케줄러와 피드백 수신 스레드에서 동시에 호출될 수 있다.
+public interface AdmissionRateController {
+
+    // 이번 tick 에 허용할 인원
+    long permits(AdmissionContext context);
+
+    // permits 로 받았지만 사용하지 않은 인원 반환 (fair-share 로 몫이 줄었을 때)
+    default void release(long unused) {
+    }
+
+    // 보호 대상 서비스의 응답 지연/에러율 피드백
+    default void onFeedback(DownstreamFeedback feedback) {
+    }
+
+    // permits 계산에 진입 허용 중인 인원이 필요한지 (필요할 때만 Redis 에서 조회)
+    default boolean requiresProceedingCount() {
+        return false;
+    }
+
+    // 현재 허용 속도 (초당 인원, 메트릭 노출용)
+    double currentRate();
+
+    record AdmissionContext(long proceedingCount) {
+    }
+
+    record DownstreamFeedback(double latencyMillis, double errorRate) {
+    }
+}
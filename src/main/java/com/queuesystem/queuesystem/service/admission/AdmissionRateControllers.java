@@ -0,0 +1,104 @@
+package com.queuesystem.queuesystem.service.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.metrics.QueueMetrics;
+import com.queuesystem.queuesystem.service.QueueEventBus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// 큐별 AdmissionRateController 생성/보관
+// 전략은 queue.admission.queues.<큐 이름> 설정을 따르고, 없으면 queue.admission.defaults 를 사용한다.
+// 피드백의 큐 이름은 사용자 입력이므로 최대 maxQueues 개까지만 보관하고, idleTimeout 동안 쓰이지 않은 큐는 지운다.
+// (활성 큐는 스케줄러가 tick 마다 조회하므로 남아 있다.)
+@Component
+@Slf4j
+public class AdmissionRateControllers {
+    private final QueueProperties queueProperties;
+    private final QueueEventBus queueEventBus;
+    private final MeterRegistry meterRegistry;
+    private final QueueMetrics queueMetrics;
+    private final Cache<String, AdmissionRateController> controllers;
+    private final FairShareAllocator fairShareAllocator = new FairShareAllocator();
+    private TokenBucketRateController globalBucket;
+
+    public AdmissionRateControllers(QueueProperties queueProperties, QueueEventBus queueEventBus, MeterRegistry meterRegistry,
+                                    QueueMetrics queueMetrics) {
+        this.queueProperties = queueProperties;
+        this.queueEventBus = queueEventBus;
+        this.meterRegistry = meterRegistry;
+        this.queueMetrics = queueMetrics;
+        QueueProperties.Admission admission = queueProperties.getAdmission();
+        this.controllers = Caffeine.newBuilder()
+                .maximumSize(admission.getMaxQueues())
+                .expireAfterAccess(admission.getIdleTimeout())
+                .evictionListener((String queue, AdmissionRateController controller, RemovalCause cause) -> removeGauge(queue))
+                .build();
+    }
+
+    public AdmissionRateController forQueue(String queue) {
+        return controllers.get(queue, this::create);
+    }
+
+    public double weightOf(String queue) {
+        return queueProperties.getAdmission().forQueue(queue).getWeight();
+    }
+
+    // 전체 허용 속도(fair-share.rate) 안에서 큐별 몫을 정하고, 나눠 주지 못한 인원은 전체 토큰으로 되돌린다.
+    public synchronized Map<String, Long> allocateFairShare(List<FairShareAllocator.Demand> demands) {
+        if (globalBucket == null) {
+            QueueProperties.FairShare fairShare = queueProperties.getAdmission().getFairShare();
+            globalBucket = new TokenBucketRateController(fairShare.getRate(), fairShare.getBurst());
+        }
+        long budget = globalBucket.permits(new AdmissionRateController.AdmissionContext(0));
+        Map<String, Long> allocations = fairShareAllocator.allocate(budget, demands);
+        globalBucket.release(budget - allocations.values().stream().mapToLong(Long::longValue).sum());
+        return allocations;
+    }
+
+    // 피드백은 어느 인스턴스로 들어오든 모든 인스턴스에 전달되므로 리더가 바뀌어도 상태가 이어진다.
+    // 잘못된 피드백 하나 때문에 구독이 끊기지 않도록 처리에 실패한 피드백은 건너뛴다. (다른 버전의 인스턴스가 보낸 이벤트 등)
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribeFeedback() {
+        queueEventBus.feedbacks()
+                .filter(event -> event.queue() != null && !event.queue().isBlank())
+                .doOnNext(event -> forQueue(event.queue())
+                        .onFeedback(new AdmissionRateController.DownstreamFeedback(event.latencyMillis(), event.errorRate())))
+                .onErrorContinue((e, event) -> log.warn("Invalid admission feedback. event={}", event, e))
+                .subscribe();
+    }
+
+    private AdmissionRateController create(String queue) {
+        QueueProperties.RateControl config = queueProperties.getAdmission().forQueue(queue);
+        AdmissionRateController controller = switch (config.getStrategy()) {
+            case TOKEN_BUCKET -> new TokenBucketRateController(config.getRate(), config.getBurst());
+            case AIMD -> new AimdRateController(config.getRate(), config.getMinRate(), config.getMaxRate(), config.getBurst(),
+                    config.getIncreaseStep(), config.getDecreaseFactor(), config.getLatencyThreshold(), config.getErrorRateThreshold());
+            case CONCURRENCY -> new ConcurrencyTargetRateController(config.getTargetProceeding(), config.getMaxPerTick());
+        };
+
+        if (queueMetrics.tryTagQueue(queue)) {
+            Gauge.builder("queue.admission.rate", controller, AdmissionRateController::currentRate)
+                    .description("Admitted users per second")
+                    .tag("queue", queue)
+                    .tag("strategy", config.getStrategy().name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        return controller;
+    }
+
+    // 지운 상태의 게이지가 남아 있으면 같은 큐를 다시 만들 때 새 게이지를 등록하지 못한다.
+    private void removeGauge(String queue) {
+        meterRegistry.find("queue.admission.rate").tag("queue", queue).meters()
+                .forEach(meterRegistry::remove);
+    }
+}
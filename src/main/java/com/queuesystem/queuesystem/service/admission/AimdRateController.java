@@ -0,0 +1,52 @@
+package com.queuesystem.queuesystem.service.admission;
+
+import java.time.Duration;
+
+// 보호 대상 서비스 피드백 기반 AIMD (Additive Increase / Multiplicative Decrease)
+// 응답 지연이나 에러율이 기준을 넘으면 속도를 decreaseFactor 배로 줄이고, 정상이면 increaseStep 만큼 올린다.
+public class AimdRateController implements AdmissionRateController {
+    private final TokenBucketRateController bucket;
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final double latencyThresholdMillis;
+    private final double errorRateThreshold;
+    private double rate;
+
+    public AimdRateController(double initialRate, double minRate, double maxRate, double burst, double increaseStep,
+                              double decreaseFactor, Duration latencyThreshold, double errorRateThreshold) {
+        this.rate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.latencyThresholdMillis = latencyThreshold.toMillis();
+        this.errorRateThreshold = errorRateThreshold;
+        this.bucket = new TokenBucketRateController(initialRate, burst);
+    }
+
+    @Override
+    public long permits(AdmissionContext context) {
+        return bucket.permits(context);
+    }
+
+    @Override
+    public void release(long unused) {
+        bucket.release(unused);
+    }
+
+    @Override
+    public synchronized void onFeedback(DownstreamFeedback feedback) {
+        boolean overloaded = feedback.latencyMillis() > latencyThresholdMillis || feedback.errorRate() > errorRateThreshold;
+        rate = overloaded
+                ? Math.max(minRate, rate * decreaseFactor)
+                : Math.min(maxRate, rate + increaseStep);
+        bucket.updateRate(rate);
+    }
+
+    @Override
+    public synchronized double currentRate() {
+        return rate;
+    }
+}
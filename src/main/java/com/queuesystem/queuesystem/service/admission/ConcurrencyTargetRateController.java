@@ -0,0 +1,37 @@
+package com.queuesystem.queuesystem.service.admission;
+
+// 진입 허용 중인 인원이 targetProceeding 을 유지하도록 빈 자리만큼만 허용
+public class ConcurrencyTargetRateController implements AdmissionRateController {
+    private final long targetProceeding;
+    private final long maxPerTick;
+    private long lastPermits;
+    private long lastPermitsNanos = System.nanoTime();
+    private double rate;
+
+    public ConcurrencyTargetRateController(long targetProceeding, long maxPerTick) {
+        this.targetProceeding = targetProceeding;
+        this.maxPerTick = maxPerTick;
+    }
+
+    @Override
+    public synchronized long permits(AdmissionContext context) {
+        long now = System.nanoTime();
+        long permits = Math.min(maxPerTick, Math.max(0, targetProceeding - context.proceedingCount()));
+
+        // 직전 tick 에 허용한 인원을 경과 시간으로 나눠 속도를 기록
+        rate = lastPermits * 1_000_000_000.0 / Math.max(1, now - lastPermitsNanos);
+        lastPermits = permits;
+        lastPermitsNanos = now;
+        return permits;
+    }
+
+    @Override
+    public boolean requiresProceedingCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized double currentRate() {
+        return rate;
+    }
+}
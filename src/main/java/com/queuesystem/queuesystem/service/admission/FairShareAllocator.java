@@ -0,0 +1,72 @@
+package com.queuesystem.queuesystem.service.admission;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 전체 허용 인원(budget)을 큐별 weight 비율로 나눔 (weighted max-min fairness)
+// 몫이 한도(limit)보다 큰 큐는 한도만큼만 주고, 남은 인원을 나머지 큐에 다시 나눈다.
+// 정수로 나누고 남는 소수점 몫은 큐별로 다음 tick 으로 이월해서, 몫이 1 보다 작은 작은 큐도 결국 차례가 온다.
+public class FairShareAllocator {
+    private Map<String, Double> credits = new HashMap<>();
+
+    // 큐 수를 Q 라 할 때 O(Q log Q)
+    public synchronized Map<String, Long> allocate(long budget, List<Demand> demands) {
+        List<Demand> active = demands.stream()
+                .filter(demand -> demand.limit() > 0 && demand.weight() > 0)
+                .sorted(Comparator.comparingDouble(demand -> demand.limit() / demand.weight()))
+                .toList();
+
+        double remainingWeight = active.stream().mapToDouble(Demand::weight).sum();
+        double remainingBudget = budget;
+        Map<String, Long> allocations = new HashMap<>();
+        Map<String, Double> nextCredits = new HashMap<>();
+        List<Demand> uncapped = new ArrayList<>();
+        long granted = 0;
+
+        for (Demand demand : active) {
+            double share = remainingWeight > 0 ? remainingBudget * demand.weight() / remainingWeight : 0;
+            remainingWeight -= demand.weight();
+
+            // 한도에 걸린 큐는 이월할 몫이 없다.
+            if (demand.limit() <= share) {
+                allocations.put(demand.queue(), demand.limit());
+                remainingBudget -= demand.limit();
+                granted += demand.limit();
+                continue;
+            }
+
+            double credit = credits.getOrDefault(demand.queue(), 0.0) + share;
+            long allocation = Math.max(0, Math.min(Math.min(demand.limit(), budget - granted), (long) Math.floor(credit)));
+            allocations.put(demand.queue(), allocation);
+            nextCredits.put(demand.queue(), credit - allocation);
+            remainingBudget -= share;
+            granted += allocation;
+            uncapped.add(demand);
+        }
+
+        // 버림으로 남은 인원은 이월된 몫이 큰 큐부터 한 명씩 (받은 만큼 몫에서 뺀다)
+        uncapped.sort(Comparator.comparingDouble((Demand demand) -> nextCredits.get(demand.queue())).reversed());
+        for (Demand demand : uncapped) {
+            if (granted >= budget) {
+                break;
+            }
+            long allocation = allocations.get(demand.queue());
+            if (allocation < demand.limit()) {
+                allocations.put(demand.queue(), allocation + 1);
+                nextCredits.merge(demand.queue(), -1.0, Double::sum);
+                granted++;
+            }
+        }
+
+        // 이번 tick 에 없는 큐(비었거나 비활성)의 이월 몫은 버린다.
+        credits = nextCredits;
+        return allocations;
+    }
+
+    // weight: 큐 가중치 x 대기 인원, limit: 이번 tick 에 받을 수 있는 최대 인원
+    public record Demand(String queue, double weight, long limit) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.queuesystem.queuesystem.service.admission;
+
+// 고정 속도(rate/초)로 토큰을 채우고, 최대 burst 만큼 한 번에 허용
+public class TokenBucketRateController implements AdmissionRateController {
+    private final double burst;
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucketRateController(double rate, double burst) {
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    @Override
+    public synchronized long permits(AdmissionContext context) {
+        refill();
+        long permits = (long) tokens;
+        tokens -= permits;
+        return permits;
+    }
+
+    @Override
+    public synchronized void release(long unused) {
+        tokens = Math.min(burst, tokens + unused);
+    }
+
+    @Override
+    public synchronized double currentRate() {
+        return rate;
+    }
+
+    // 속도를 바꾸기 전까지 쌓인 토큰은 이전 속도로 계산
+    synchronized void updateRate(double rate) {
+        refill();
+        this.rate = rate;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + rate * (now - lastRefillNanos) / 1_000_000_000.0);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,50 @@
+package com.queuesystem.queuesystem.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 큐 하나의 초 단위 이벤트 수 (지표별 고정 크기 ring buffer)
+// slot = 초 % size 이며, slot 의 초가 바뀌면 그 slot 을 0 으로 비우고 다시 센다.
+// 비우는 순간과 겹친 증가분은 빠질 수 있다. (통계용 근사값)
+final class QueueCounters {
+    private final int size;
+    // slot -> 그 slot 이 담고 있는 초 (epoch seconds)
+    private final AtomicLongArray seconds;
+    // metric.ordinal() * size + slot -> 이벤트 수
+    private final AtomicLongArray counts;
+    private volatile long lastRecordedSecond;
+    // flush 스레드에서만 사용: 이 초까지 Redis 에 반영함
+    long flushedUntil;
+
+    QueueCounters(int size, long now) {
+        this.size = size;
+        this.seconds = new AtomicLongArray(size);
+        this.counts = new AtomicLongArray(size * QueueMetric.VALUES.length);
+        this.flushedUntil = now - 1;
+    }
+
+    void add(QueueMetric metric, long second, long count) {
+        int slot = (int) (second % size);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && slotSecond < second && seconds.compareAndSet(slot, slotSecond, second)) {
+            for (int i = 0; i < QueueMetric.VALUES.length; i++) {
+                counts.set(i * size + slot, 0);
+            }
+        }
+        counts.addAndGet(metric.ordinal() * size + slot, count);
+        lastRecordedSecond = second;
+    }
+
+    // ring 에서 밀려났거나 기록이 없는 초는 0
+    long get(QueueMetric metric, long second) {
+        int slot = (int) (second % size);
+        return seconds.get(slot) == second ? counts.get(metric.ordinal() * size + slot) : 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long lastRecordedSecond() {
+        return lastRecordedSecond;
+    }
+}
@@ -0,0 +1,13 @@
+package com.queuesystem.queuesystem.stats;
+
+// 큐별로 초 단위로 세는 이벤트
+public enum QueueMetric {
+    JOIN, ADMIT, LEAVE, EVICT;
+
+    static final QueueMetric[] VALUES = values();
+
+    // Redis hash field 이름에 쓰는 값
+    String field() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,94 @@
+package com.queuesystem.queuesystem.stats;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 큐별 등록/진입 허용/이탈/정리 인원을 초 단위로 세고, 주기적으로 분 단위로 합쳐서 Redis 에 누적
+// 기록은 요청 처리 경로에서 호출되므로 큐의 카운터가 만들어진 뒤에는 객체를 만들지 않는다. (배열 값 증가만)
+// 인스턴스마다 자기가 처리한 이벤트만 세므로, 모든 인스턴스의 합계는 Redis 에 쌓인 값으로 본다.
+// Redis: user:queue:stats:<queue>:<시 시작 시각(ms)> hash, field = <분 시작 시각(ms)>:<지표>
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueueStatsRecorder {
+    static final String KEY_PREFIX = "user:queue:stats:";
+    static final long MINUTE_MILLIS = 60_000;
+    static final long HOUR_MILLIS = 3_600_000;
+    // flush 주기보다 충분히 길게
+    private static final int RING_SECONDS = 180;
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final QueueProperties queueProperties;
+    private final Map<String, QueueCounters> counters = new ConcurrentHashMap<>();
+
+    public void record(String queue, QueueMetric metric, long count) {
+        if (count <= 0 || !queueProperties.getStats().isEnabled()) {
+            return;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        QueueCounters queueCounters = counters.get(queue);
+        if (queueCounters == null) {
+            // 큐 이름은 사용자 입력이므로 세는 큐 수를 제한한다.
+            if (counters.size() >= queueProperties.getStats().getMaxQueues()) {
+                return;
+            }
+            queueCounters = counters.computeIfAbsent(queue, key -> new QueueCounters(RING_SECONDS, second));
+        }
+        queueCounters.add(metric, second, count);
+    }
+
+    static String key(String queue, long hour) {
+        return KEY_PREFIX + queue + ":" + hour;
+    }
+
+    // 지난 초까지를 분 단위로 합쳐서 HINCRBY (지금 세고 있는 초는 다음 번에)
+    // 한동안 기록이 없고 모두 반영된 큐의 카운터는 지운다.
+    @Scheduled(initialDelay = 10000, fixedDelay = 10000)
+    public void scheduleFlush() {
+        long until = System.currentTimeMillis() / 1000 - 1;
+
+        Flux.fromIterable(counters.entrySet())
+                .flatMap(entry -> flush(entry.getKey(), entry.getValue(), until)
+                        .onErrorResume(e -> {
+                            log.warn("Queue stats flush failed. queue={}", entry.getKey(), e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+
+        counters.values().removeIf(queueCounters -> queueCounters.lastRecordedSecond() < until - RING_SECONDS
+                && queueCounters.flushedUntil >= queueCounters.lastRecordedSecond());
+    }
+
+    private Mono<Void> flush(String queue, QueueCounters queueCounters, long until) {
+        long from = Math.max(queueCounters.flushedUntil + 1, until - queueCounters.size() + 1);
+        // key -> (field -> 증가분)
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        for (long second = from; second <= until; second++) {
+            long millis = second * 1000;
+            for (QueueMetric metric : QueueMetric.VALUES) {
+                long count = queueCounters.get(metric, second);
+                if (count > 0) {
+                    deltas.computeIfAbsent(key(queue, millis / HOUR_MILLIS * HOUR_MILLIS), key -> new HashMap<>())
+                            .merge(millis / MINUTE_MILLIS * MINUTE_MILLIS + ":" + metric.field(), count, Long::sum);
+                }
+            }
+        }
+        queueCounters.flushedUntil = until;
+
+        return Flux.fromIterable(deltas.entrySet())
+                .flatMap(key -> Flux.fromIterable(key.getValue().entrySet())
+                        .flatMap(field -> reactiveRedisTemplate.opsForHash().increment(key.getKey(), field.getKey(), field.getValue()))
+                        .then(reactiveRedisTemplate.expire(key.getKey(), queueProperties.getStats().getRetention().plusMillis(HOUR_MILLIS))))
+                .then();
+    }
+}
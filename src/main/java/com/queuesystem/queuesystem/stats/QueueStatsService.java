@@ -0,0 +1,75 @@
+package com.queuesystem.queuesystem.stats;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.dto.QueueStatsResponse;
+import com.queuesystem.queuesystem.service.UserQueueService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.queuesystem.queuesystem.stats.QueueStatsRecorder.HOUR_MILLIS;
+import static com.queuesystem.queuesystem.stats.QueueStatsRecorder.MINUTE_MILLIS;
+
+// 큐별 처리량/대기 인원 추이/예상 대기 시간
+// Redis 에 분 단위로 쌓인 모든 인스턴스의 합계로 계산하며, 아직 끝나지 않은 현재 분은 추이(history)에만 넣는다.
+@Service
+@RequiredArgsConstructor
+public class QueueStatsService {
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final UserQueueService userQueueService;
+    private final QueueProperties queueProperties;
+
+    public Mono<QueueStatsResponse> getStats(String queue, Long rank, long minutes) {
+        long now = System.currentTimeMillis();
+        long currentMinute = now / MINUTE_MILLIS * MINUTE_MILLIS;
+        long window = Math.max(1, Math.min(minutes, queueProperties.getStats().getRetention().toMinutes()));
+        long from = currentMinute - window * MINUTE_MILLIS;
+
+        Mono<Map<Long, long[]>> history = Flux.range(0, (int) ((currentMinute / HOUR_MILLIS) - (from / HOUR_MILLIS) + 1))
+                .map(hour -> QueueStatsRecorder.key(queue, (from / HOUR_MILLIS + hour) * HOUR_MILLIS))
+                .concatMap(key -> reactiveRedisTemplate.<String, String>opsForHash().entries(key))
+                .collect(HashMap::new, (minutesByStart, field) -> {
+                    int separator = field.getKey().indexOf(':');
+                    long minute = Long.parseLong(field.getKey().substring(0, separator));
+                    if (minute >= from) {
+                        QueueMetric metric = QueueMetric.valueOf(field.getKey().substring(separator + 1).toUpperCase());
+                        minutesByStart.computeIfAbsent(minute, key -> new long[QueueMetric.VALUES.length])[metric.ordinal()] += Long.parseLong(field.getValue());
+                    }
+                });
+
+        return Mono.zip(history, userQueueService.countWaiting(queue), userQueueService.countProceeding(queue))
+                .map(stats -> toResponse(queue, rank, from, currentMinute, window, stats.getT1(), stats.getT2(), stats.getT3()));
+    }
+
+    private QueueStatsResponse toResponse(String queue, Long rank, long from, long currentMinute, long window,
+                                          Map<Long, long[]> counts, long waiting, long proceeding) {
+        List<QueueStatsResponse.Point> points = new ArrayList<>();
+        long[] completed = new long[QueueMetric.VALUES.length];
+        for (long minute = from; minute <= currentMinute; minute += MINUTE_MILLIS) {
+            long[] count = counts.getOrDefault(minute, new long[QueueMetric.VALUES.length]);
+            points.add(new QueueStatsResponse.Point(minute, count[QueueMetric.JOIN.ordinal()], count[QueueMetric.ADMIT.ordinal()],
+                    count[QueueMetric.LEAVE.ordinal()], count[QueueMetric.EVICT.ordinal()]));
+            if (minute < currentMinute) {
+                for (int i = 0; i < count.length; i++) {
+                    completed[i] += count[i];
+                }
+            }
+        }
+
+        double seconds = window * MINUTE_MILLIS / 1000.0;
+        double joinRate = completed[QueueMetric.JOIN.ordinal()] / seconds;
+        double admissionRate = completed[QueueMetric.ADMIT.ordinal()] / seconds;
+        double depthTrend = (completed[QueueMetric.JOIN.ordinal()] - completed[QueueMetric.ADMIT.ordinal()]
+                - completed[QueueMetric.LEAVE.ordinal()] - completed[QueueMetric.EVICT.ordinal()]) / seconds;
+        Long etaSeconds = rank != null && rank > 0 && admissionRate > 0 ? (long) Math.ceil(rank / admissionRate) : null;
+
+        return new QueueStatsResponse(queue, waiting, proceeding, joinRate, admissionRate, depthTrend, rank, etaSeconds, points);
+    }
+}
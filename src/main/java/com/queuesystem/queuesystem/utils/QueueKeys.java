@@ -0,0 +1,71 @@
+package com.queuesystem.queuesystem.utils;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+// 큐 이름 -> Redis 키 변환
+// 한 샤드의 대기열/진입 허용/heartbeat 키는 같은 해시 태그를 써서 같은 슬롯에 둔다.
+// 샤드가 하나면 {queue}, 여러 개면 {queue#0} ~ {queue#K-1} 로 나뉘어 서로 다른 슬롯에 분산된다.
+@Component
+@RequiredArgsConstructor
+public class QueueKeys {
+    public static final String USER_QUEUE_ACTIVE_KEY = "user:queue:active";
+    // 진입을 허용한 적이 있는 큐 (큐 -> 마지막 진입 허용 시각, 대기자가 없어 활성 목록에서 빠진 큐도 스냅샷에 남기는 데 사용)
+    public static final String USER_QUEUE_PROCEEDING_KEY = "user:queue:proceeding";
+
+    private final QueueProperties queueProperties;
+
+    public int shardCount(String queue) {
+        return queueProperties.getSharding().shardsOf(queue);
+    }
+
+    // 사용자는 항상 같은 샤드에 배정된다.
+    public Shard shardOf(String queue, String userId) {
+        int shards = shardCount(queue);
+        return shard(queue, shards, Math.floorMod(userId.hashCode(), shards));
+    }
+
+    public List<Shard> shards(String queue) {
+        int shards = shardCount(queue);
+        return IntStream.range(0, shards)
+                .mapToObj(index -> shard(queue, shards, index))
+                .toList();
+    }
+
+    private Shard shard(String queue, int shards, int index) {
+        return new Shard(index, shards == 1 ? queue : queue + "#" + index);
+    }
+
+    public record Shard(int index, String tag) {
+        public String waitKey() {
+            return "user:queue:{%s}:wait".formatted(tag);
+        }
+
+        public String proceedKey() {
+            return "user:queue:{%s}:proceed".formatted(tag);
+        }
+
+        public String heartbeatKey() {
+            return "user:queue:{%s}:heartbeat".formatted(tag);
+        }
+
+        // 진입 허용 사용자별 마지막 lease 갱신 시각
+        public String leaseKey() {
+            return "user:queue:{%s}:lease".formatted(tag);
+        }
+
+        // 누적 등록 인원 (등록 순번)
+        public String joinedKey() {
+            return "user:queue:{%s}:joined".formatted(tag);
+        }
+
+        // 누적 진입 허용 인원
+        public String admittedKey() {
+            return "user:queue:{%s}:admitted".formatted(tag);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.queuesystem.queuesystem.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Lua 스크립트 모음
+// 실행은 ReactiveRedisTemplate#execute 를 통해 EVALSHA 로 이루어지며,
+// Redis 에서 스크립트가 사라진 경우(NOSCRIPT) 자동으로 EVAL 로 재시도된다.
+@Component
+@Slf4j
+public class RedisScripts {
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    @Getter
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> registerUser = RedisScript.of(new ClassPathResource("scripts/register-user.lua"), List.class);
+    @Getter
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> registerUsers = RedisScript.of(new ClassPathResource("scripts/register-users.lua"), List.class);
+    @Getter
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> allowUser = RedisScript.of(new ClassPathResource("scripts/allow-user.lua"), List.class);
+    @Getter
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> evictStaleUser = RedisScript.of(new ClassPathResource("scripts/evict-stale-user.lua"), List.class);
+    @Getter
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> rateLimit = RedisScript.of(new ClassPathResource("scripts/rate-limit.lua"), List.class);
+    @Getter
+    private final RedisScript<Long> acquireLeader = RedisScript.of(new ClassPathResource("scripts/acquire-leader.lua"), Long.class);
+    @Getter
+    private final RedisScript<Long> releaseLeader = RedisScript.of(new ClassPathResource("scripts/release-leader.lua"), Long.class);
+
+    public RedisScripts(ReactiveRedisTemplate<String, String> reactiveRedisTemplate) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+    }
+
+    public List<RedisScript<?>> all() {
+        return List.of(registerUser, registerUsers, allowUser, evictStaleUser, rateLimit, acquireLeader, releaseLeader);
+    }
+
+    // 기동 시점에 스크립트를 미리 적재해서 첫 요청부터 EVALSHA 가 적중하도록 한다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        Flux.fromIterable(all())
+                .flatMap(script -> reactiveRedisTemplate.execute(connection -> connection.scriptingCommands()
+                        .scriptLoad(ByteBuffer.wrap(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)))))
+                .subscribe(
+                        sha -> log.info("Lua script loaded. sha={}", sha),
+                        e -> log.warn("Lua script preload failed. It will be loaded on first use.", e));
+    }
+}
@@ -1,18 +1,76 @@
 package com.queuesystem.queuesystem.utils;
 
 import com.queuesystem.queuesystem.exception.ErrorCode;
-import lombok.RequiredArgsConstructor;
+import com.queuesystem.queuesystem.metrics.QueueMetrics;
+import org.springframework.data.redis.connection.ReactiveZSetCommands.ZAddCommand;
+import org.springframework.data.redis.connection.zset.Tuple;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.IntStream;
 @Component
 public class RedisUtils {
     private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final RedisScripts redisScripts;
+    private final QueueMetrics queueMetrics;
 
-    public RedisUtils(ReactiveRedisTemplate<String, String> reactiveRedisTemplate) {
+    public RedisUtils(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, RedisScripts redisScripts,
+                      QueueMetrics queueMetrics) {
         this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.redisScripts = redisScripts;
+        this.queueMetrics = queueMetrics;
+    }
+
+    // 중복 확인, 등록, 순위 조회를 스크립트 한 번으로 처리 (이미 등록된 사용자면 에러)
+    // 등록과 동시에 heartbeat 를 기록하고 등록 순번 카운터를 올린다.
+    public Mono<Registration> registerUser(String key, String heartbeatKey, String sequenceKey, String userId, double score) {
+        Mono<Registration> registration = reactiveRedisTemplate.execute(redisScripts.getRegisterUser(),
+                        List.of(key, heartbeatKey, sequenceKey),
+                        List.of(userId, String.valueOf(score), String.valueOf(System.currentTimeMillis())))
+                .flatMapIterable(result -> (List<?>) result)
+                .map(value -> ((Number) value).longValue())
+                .collectList()
+                .filter(result -> result.size() == 2)
+                .switchIfEmpty(Mono.error(ErrorCode.QUEUE_REGISTRATION_FAILED.build()))
+                .flatMap(result -> result.get(0) < 0
+                        ? Mono.error(ErrorCode.QUEUE_ALREADY_REGISTER_USER.build())
+                        : Mono.just(new Registration(result.get(0), result.get(1))));
+
+        return queueMetrics.timedRedis("register-user", registration);
+    }
+
+    // 같은 샤드의 사용자들을 스크립트 한 번으로 등록 (registerUser 와 같은 처리)
+    // 입력 순서대로 등록 결과를 반환하고, 이미 등록된 사용자의 결과는 rank, sequence 가 -1 이다.
+    public Mono<List<Registration>> registerUsers(String key, String heartbeatKey, String sequenceKey, List<String> userIds,
+                                                  List<Double> scores) {
+        List<String> args = new ArrayList<>(userIds.size() * 2 + 1);
+        args.add(String.valueOf(System.currentTimeMillis()));
+        for (int i = 0; i < userIds.size(); i++) {
+            args.add(userIds.get(i));
+            args.add(String.valueOf(scores.get(i)));
+        }
+
+        Mono<List<Registration>> registrations = reactiveRedisTemplate.execute(redisScripts.getRegisterUsers(),
+                        List.of(key, heartbeatKey, sequenceKey), args)
+                .flatMapIterable(result -> (List<?>) result)
+                .map(value -> ((Number) value).longValue())
+                .collectList()
+                .filter(result -> result.size() == userIds.size() * 2)
+                .switchIfEmpty(Mono.error(ErrorCode.QUEUE_REGISTRATION_FAILED.build()))
+                .map(result -> IntStream.range(0, userIds.size())
+                        .mapToObj(i -> new Registration(result.get(i * 2), result.get(i * 2 + 1)))
+                        .toList());
+
+        return queueMetrics.timedRedis("register-users", registrations);
     }
 
     // 사용자 등록 여부 확인
@@ -34,4 +92,82 @@ public class RedisUtils {
                         .map(rank -> rank + 1));
     }
 
-}
\ No newline at end of file
+    // 대기열 앞쪽 사용자를 진입 허용 목록으로 원자적으로 이동하고, 이동한 사용자 ID 를 반환
+    // 이동하면서 유효 시간이 지난 진입 허용 사용자를 reapBatchSize 만큼 정리하고, 이동한 사용자의 lease 를 시작한다.
+    // fenceUntil(Redis 시각 ms)이 지난 뒤 실행되면 아무것도 이동하지 않는다. (0 이면 검사하지 않음)
+    public Mono<List<String>> moveUsersToProceed(String waitKey, String proceedKey, String heartbeatKey, String admittedKey,
+                                                 String leaseKey, long count, long now, Duration proceedTtl, int reapBatchSize,
+                                                 long fenceUntil) {
+        Mono<List<String>> allowed = reactiveRedisTemplate.execute(redisScripts.getAllowUser(),
+                        List.of(waitKey, proceedKey, heartbeatKey, admittedKey, leaseKey),
+                        List.of(String.valueOf(count), String.valueOf(now), String.valueOf(proceedTtl.toMillis()),
+                                String.valueOf(reapBatchSize), String.valueOf(fenceUntil)))
+                .flatMapIterable(result -> (List<?>) result)
+                .map(String::valueOf)
+                .collectList();
+
+        return queueMetrics.timedRedis("allow-user", allowed);
+    }
+
+    // 이미 heartbeat 대상인 사용자만 마지막 접속 시각을 갱신 (ZADD XX CH, 한 번의 쓰기)
+    public Mono<Boolean> touchHeartbeat(String heartbeatKey, String userId, long now) {
+        ZAddCommand command = ZAddCommand.tuple(Tuple.of(userId.getBytes(StandardCharsets.UTF_8), (double) now))
+                .to(ByteBuffer.wrap(heartbeatKey.getBytes(StandardCharsets.UTF_8)))
+                .xx()
+                .ch();
+
+        Mono<Boolean> touched = reactiveRedisTemplate.execute(connection -> connection.zSetCommands().zAdd(Mono.just(command)))
+                .next()
+                .map(response -> response.getOutput().longValue() > 0)
+                .defaultIfEmpty(false);
+
+        return queueMetrics.timedRedis("touch-heartbeat", touched);
+    }
+
+    // 여러 사용자의 heartbeat 를 한 번에 갱신 (1000 명 단위로 나눠서 ZADD XX)
+    public Mono<Void> touchHeartbeats(String heartbeatKey, Collection<String> userIds, long now) {
+        ByteBuffer key = ByteBuffer.wrap(heartbeatKey.getBytes(StandardCharsets.UTF_8));
+
+        Mono<Void> touched = Flux.fromIterable(userIds)
+                .map(userId -> Tuple.of(userId.getBytes(StandardCharsets.UTF_8), (double) now))
+                .buffer(1000)
+                .map(tuples -> ZAddCommand.tuples(tuples).to(key).xx())
+                .as(commands -> reactiveRedisTemplate.execute(connection -> connection.zSetCommands().zAdd(commands)))
+                .then();
+
+        return queueMetrics.timedRedis("touch-heartbeats", touched);
+    }
+
+    // staleBefore 이전에 마지막 heartbeat 를 보낸 사용자를 최대 batchSize 명 제거하고, 제거한 사용자 ID 를 반환
+    public Mono<List<String>> evictStaleUsers(String waitKey, String heartbeatKey, long staleBefore, int batchSize) {
+        Mono<List<String>> evicted = reactiveRedisTemplate.execute(redisScripts.getEvictStaleUser(),
+                        List.of(waitKey, heartbeatKey),
+                        List.of(String.valueOf(staleBefore), String.valueOf(batchSize)))
+                .flatMapIterable(result -> (List<?>) result)
+                .map(String::valueOf)
+                .collectList();
+
+        return queueMetrics.timedRedis("evict-stale-user", evicted);
+    }
+
+    // key 의 요청 수를 1 올리고, 윈도우 안의 요청 수와 남은 시간을 반환 (첫 요청에서 윈도우 시작)
+    public Mono<WindowCount> incrementWindow(String key, Duration window) {
+        Mono<WindowCount> count = reactiveRedisTemplate.execute(redisScripts.getRateLimit(),
+                        List.of(key), List.of(String.valueOf(window.toMillis())))
+                .flatMapIterable(result -> (List<?>) result)
+                .map(value -> ((Number) value).longValue())
+                .collectList()
+                .filter(result -> result.size() == 2)
+                .map(result -> new WindowCount(result.get(0), result.get(1)));
+
+        return queueMetrics.timedRedis("rate-limit", count);
+    }
+
+    // rank: 샤드 안에서의 순위, sequence: 샤드의 누적 등록 순번
+    public record Registration(long rank, long sequence) {
+    }
+
+    // remainingMillis: 윈도우가 끝날 때까지 남은 시간
+    public record WindowCount(long count, long remainingMillis) {
+    }
+}
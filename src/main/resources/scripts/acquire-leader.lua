@@ -0,0 +1,21 @@
+-- 스케줄러 리더 lease 획득/연장
+-- KEYS[1]: lease 키
+-- ARGV[1]: 인스턴스 ID, ARGV[2]: lease 유효 시간(ms)
+-- 반환: 획득/연장했으면 Redis 기준 현재 시각(ms, fencing 시각 계산용), 아니면 0
+local function now()
+    local time = redis.call('TIME')
+    return tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+end
+
+local owner = redis.call('GET', KEYS[1])
+if owner == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return now()
+end
+
+if not owner then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return now()
+end
+
+return 0
@@ -0,0 +1,62 @@
+-- 대기열 앞쪽 사용자를 진입 허용 목록으로 한 번에 이동
+-- KEYS[1]: 대기열 키, KEYS[2]: 진입 허용 키, KEYS[3]: heartbeat 키, KEYS[4]: 누적 진입 허용 카운터 키, KEYS[5]: lease 키
+-- ARGV[1]: 허용 인원, ARGV[2]: 허용 시각(score, ms), ARGV[3]: 진입 허용 유효 시간(ms)
+-- ARGV[4]: 한 번에 정리할 만료 사용자 수, ARGV[5]: fencing 시각 (Redis 시각 ms, 0 이면 검사하지 않음)
+local now = tonumber(ARGV[2])
+local ttl = tonumber(ARGV[3])
+
+-- lease 가 끝난 이전 리더가 늦게 보낸 실행은 아무것도 하지 않는다. (새 리더와 같은 주기에 중복 허용 방지)
+local fence = tonumber(ARGV[5])
+if fence > 0 then
+    local time = redis.call('TIME')
+    if tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) >= fence then
+        return {}
+    end
+end
+
+-- 만료된 진입 허용 사용자를 조금씩 정리
+local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', now - ttl, 'LIMIT', 0, ARGV[4])
+if #expired > 0 then
+    redis.call('ZREM', KEYS[2], unpack(expired))
+    redis.call('ZREM', KEYS[5], unpack(expired))
+end
+
+local popped = redis.call('ZPOPMIN', KEYS[1], ARGV[1])
+local allowed = {}
+local args = {}
+
+for i = 1, #popped, 2 do
+    allowed[#allowed + 1] = popped[i]
+    args[#args + 1] = now
+    args[#args + 1] = popped[i]
+
+    -- unpack 인자 수 제한을 피하기 위해 나눠서 추가
+    if #args >= 1000 then
+        redis.call('ZADD', KEYS[2], unpack(args))
+        redis.call('ZADD', KEYS[5], unpack(args))
+        args = {}
+    end
+end
+
+if #args > 0 then
+    redis.call('ZADD', KEYS[2], unpack(args))
+    redis.call('ZADD', KEYS[5], unpack(args))
+end
+
+-- 진입 허용된 사용자는 더 이상 대기 heartbeat 대상이 아님
+for i = 1, #allowed, 500 do
+    redis.call('ZREM', KEYS[3], unpack(allowed, i, math.min(i + 499, #allowed)))
+end
+
+if #allowed > 0 then
+    redis.call('INCRBY', KEYS[4], #allowed)
+end
+
+-- 가장 마지막 허용 사용자가 만료되는 시점에 키 전체를 정리 (사용자별 만료는 score 로 판단)
+-- lease 는 허용 시각에 시작한다.
+if #allowed > 0 then
+    redis.call('PEXPIRE', KEYS[2], ttl)
+    redis.call('PEXPIRE', KEYS[5], ttl)
+end
+
+return allowed
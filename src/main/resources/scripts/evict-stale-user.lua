@@ -0,0 +1,12 @@
+-- heartbeat 가 끊긴 대기 사용자 제거 (lease 가 끊긴 진입 허용 사용자 회수에도 사용)
+-- KEYS[1]: 대기열(진입 허용) 키, KEYS[2]: heartbeat(lease) 키
+-- ARGV[1]: 이 시각(ms) 이전에 마지막 heartbeat 를 보낸 사용자를 제거, ARGV[2]: 한 번에 제거할 최대 인원
+-- 반환: 제거한 사용자 ID 목록
+local stale = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+if #stale == 0 then
+    return stale
+end
+
+redis.call('ZREM', KEYS[1], unpack(stale))
+redis.call('ZREM', KEYS[2], unpack(stale))
+return stale
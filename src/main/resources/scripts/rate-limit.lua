@@ -0,0 +1,10 @@
+-- 고정 윈도우 요청 수 증가 (모든 인스턴스 합산 한도)
+-- KEYS[1]: 카운터 키
+-- ARGV[1]: 윈도우 길이(ms)
+-- 반환: {윈도우 안의 요청 수, 윈도우가 끝날 때까지 남은 시간(ms)}
+local count = redis.call('INCR', KEYS[1])
+if count == 1 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+end
+
+return {count, redis.call('PTTL', KEYS[1])}
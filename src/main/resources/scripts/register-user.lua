@@ -0,0 +1,12 @@
+-- 대기열 등록 (중복 확인 + 등록 + 순위 조회를 한 번에 처리)
+-- KEYS[1]: 대기열 키, KEYS[2]: heartbeat 키, KEYS[3]: 등록 순번 카운터 키
+-- ARGV[1]: 사용자 ID, ARGV[2]: score, ARGV[3]: 현재 시각(ms)
+-- 반환: {순위, 등록 순번} (이미 등록된 사용자면 {-1, -1})
+if redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+    return {-1, -1}
+end
+
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1])
+local sequence = redis.call('INCR', KEYS[3])
+return {redis.call('ZRANK', KEYS[1], ARGV[1]) + 1, sequence}
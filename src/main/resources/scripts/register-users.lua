@@ -0,0 +1,19 @@
+-- 대기열 일괄 등록 (같은 샤드의 사용자들을 register-user.lua 와 같은 방식으로 한 번에 등록)
+-- KEYS[1]: 대기열 키, KEYS[2]: heartbeat 키, KEYS[3]: 등록 순번 카운터 키
+-- ARGV[1]: 현재 시각(ms), ARGV[2], ARGV[3], ...: 사용자 ID, score 쌍
+-- 반환: 사용자마다 순위, 등록 순번을 이어 붙인 목록 (이미 등록된 사용자면 -1, -1)
+local result = {}
+for i = 2, #ARGV, 2 do
+    if redis.call('ZSCORE', KEYS[1], ARGV[i]) then
+        result[#result + 1] = -1
+        result[#result + 1] = -1
+    else
+        redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i])
+        redis.call('ZADD', KEYS[2], ARGV[1], ARGV[i])
+        local sequence = redis.call('INCR', KEYS[3])
+        result[#result + 1] = redis.call('ZRANK', KEYS[1], ARGV[i]) + 1
+        result[#result + 1] = sequence
+    end
+end
+
+return result
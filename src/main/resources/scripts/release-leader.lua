@@ -0,0 +1,8 @@
+-- 스케줄러 리더 lease 반납 (본인이 리더인 경우에만)
+-- KEYS[1]: lease 키
+-- ARGV[1]: 인스턴스 ID
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+
+return 0
@@ -0,0 +1,97 @@
+
+// 페이지는 모든 사용자에게 같은 파일이므로 사용자 정보는 주소(/waiting-room?queue=..&user_id=..)에서 읽는다.
+const params = new URLSearchParams(window.location.search);
+const queue = params.get('queue') || 'default';
+const userId = params.get('user_id');
+
+function fetchWaitingRank() {
+    const queryParam = new URLSearchParams({queue: queue, user_id: userId});
+    return fetch('/api/v1/queue/rank?' + queryParam)
+        .then(response => {
+            if (!response.ok) {
+                return response;
+            }
+            return response.json().then(data => {
+                if (data.rank < 0) {
+                    document.querySelector('#number').textContent = 0;
+                    document.querySelector('#updated').textContent = new Date();
+
+                    const newUrl = window.location.origin + window.location.pathname + window.location.search;
+                    window.location.href = newUrl;
+                    return response;
+                }
+                document.querySelector('#number').textContent = data.rank;
+                document.querySelector('#updated').textContent = new Date();
+                return response;
+            });
+        });
+}
+
+// Heartbeat 주기적으로 전송 (서버는 본문의 userId 로 사용자별 요청 수를 센다.)
+function sendHeartbeat() {
+    return fetch('/api/v1/queue/heartbeat', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ queue, userId })
+    });
+}
+
+// 요청이 끝난 뒤 interval 만큼 기다렸다가 다시 호출
+// 429 응답이면 Retry-After(초) 만큼 기다린다.
+function repeat(task, interval) {
+    task()
+        .then(response => response.status === 429
+                ? Math.max(interval, (Number(response.headers.get('Retry-After')) || 1) * 1000)
+                : interval,
+            error => {
+                console.error(error);
+                return interval;
+            })
+        .then(delay => setTimeout(() => repeat(task, interval), delay));
+}
+
+// 순번/진입 허용 상태를 서버에서 전달받음 (연결이 유지되는 동안 heartbeat 는 서버가 처리)
+function subscribeWaitingRank() {
+    const queryParam = new URLSearchParams({queue: queue, user_id: userId});
+    const source = new EventSource('/api/v1/queue/stream?' + queryParam);
+
+    source.addEventListener('rank', event => {
+        const data = JSON.parse(event.data);
+        if (data.rank < 0) {
+            source.close();
+            window.location.reload();
+            return;
+        }
+        document.querySelector('#number').textContent = data.rank;
+        document.querySelector('#updated').textContent = new Date();
+    });
+
+    source.addEventListener('allowed', () => {
+        source.close();
+        document.querySelector('#number').textContent = 0;
+        window.location.reload();
+    });
+}
+
+if (window.EventSource) {
+    subscribeWaitingRank();
+} else {
+    // EventSource 를 지원하지 않는 브라우저는 기존 방식(polling)으로 동작
+    repeat(fetchWaitingRank, 3000);
+    repeat(sendHeartbeat, 5000);
+}
+
+// Leave API 호출
+function leaveQueue() {
+    fetch('/api/v1/queue/leave', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ queue, userId })
+    }).catch(console.error);
+}
+
+// beforeunload 이벤트로 정상 종료 처리
+window.addEventListener('beforeunload', (event) => {
+    leaveQueue();
+    event.preventDefault(); // 브라우저 종료 확인 (필요 시)
+});
@@ -1,27 +1,45 @@
 package com.queuesystem.queuesystem;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.data.redis.RedisConnectionDetails;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import redis.embedded.RedisServer;
 
 import java.io.IOException;
+import java.net.ServerSocket;
 
+// 테스트 컨텍스트마다 빈 포트로 Redis 를 따로 띄운다.
+// 설정이 다른 테스트 클래스는 컨텍스트가 따로 만들어지고 캐시된 컨텍스트의 스케줄러도 계속 돌기 때문에, Redis 를 같이 쓰면 서로의 데이터를 건드린다.
 @TestConfiguration
 public class EmbeddedRedis {
     private final RedisServer redisServer;
+    private final int port;
 
     public EmbeddedRedis() throws IOException {
-        this.redisServer = new RedisServer(63790);
+        this.port = freePort();
+        this.redisServer = new RedisServer(port);
+        this.redisServer.start();
     }
 
-    @PostConstruct
-    public void start() throws IOException {
-        this.redisServer.start();
+    @Bean
+    public RedisConnectionDetails redisConnectionDetails() {
+        return new RedisConnectionDetails() {
+            @Override
+            public Standalone getStandalone() {
+                return Standalone.of("localhost", port);
+            }
+        };
     }
 
     @PreDestroy
     public void stop() throws IOException {
         this.redisServer.stop();
     }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
 }
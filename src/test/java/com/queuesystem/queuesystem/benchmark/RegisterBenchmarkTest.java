@@ -0,0 +1,59 @@
+package com.queuesystem.queuesystem.benchmark;
+
+import com.queuesystem.queuesystem.EmbeddedRedis;
+import com.queuesystem.queuesystem.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+// 등록 경로 처리량 비교 (기존 ZRANK -> ZADD -> ZRANK vs Lua 스크립트)
+// ./gradlew benchmark 로 실행
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@Import({EmbeddedRedis.class})
+@ActiveProfiles("test")
+class RegisterBenchmarkTest {
+    private static final int USER_COUNT = 20_000;
+    private static final int CONCURRENCY = 64;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    @Test
+    void compareRegisterPath() {
+        double legacy = measure("user:queue:legacy:wait", (key, userId) -> redisUtils.isUserAlreadyRegistered(key, userId)
+                .flatMap(registered -> redisUtils.addUserToQueue(key, userId, System.currentTimeMillis())));
+        double script = measure("user:queue:script:wait", (key, userId) -> redisUtils.registerUser(key, key + ":heartbeat", key + ":joined", userId, System.currentTimeMillis())
+                .map(RedisUtils.Registration::rank));
+
+        log.info("register ops/sec - legacy: {}, script: {}", String.format("%.0f", legacy), String.format("%.0f", script));
+    }
+
+    private double measure(String key, BiFunction<String, String, Mono<Long>> register) {
+        long start = System.nanoTime();
+        Flux.range(0, USER_COUNT)
+                .flatMap(i -> register.apply(key, String.valueOf(i)), CONCURRENCY)
+                .blockLast();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return USER_COUNT / elapsedSeconds;
+    }
+}
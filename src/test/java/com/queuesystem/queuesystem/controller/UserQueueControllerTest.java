@@ -0,0 +1,135 @@
+package com.queuesystem.queuesystem.controller;
+
+import com.queuesystem.queuesystem.EmbeddedRedis;
+import com.queuesystem.queuesystem.dto.AllowedUserResponse;
+import com.queuesystem.queuesystem.security.InternalApiFilter;
+import com.queuesystem.queuesystem.service.AllowedUserCache;
+import com.queuesystem.queuesystem.service.QueueEventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "queue.internal.api-key=internal-key")
+@AutoConfigureWebTestClient
+@Import({EmbeddedRedis.class})
+@ActiveProfiles("test")
+class UserQueueControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AllowedUserCache allowedUserCache;
+
+    @Autowired
+    private QueueEventBus queueEventBus;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    @Test
+    void revokedUserIsNotAllowed() {
+        webTestClient.post().uri("/api/v1/queue?user_id=100").exchange().expectStatus().isOk();
+        webTestClient.post().uri("/api/v1/queue/allow?count=1").exchange().expectStatus().isOk();
+        assertThat(allowed("100").allowed()).isTrue();
+
+        webTestClient.post().uri("/api/v1/queue/revoke?user_id=100").exchange().expectStatus().isOk();
+
+        assertThat(allowed("100").allowed()).isFalse();
+    }
+
+    // 다른 인스턴스에서 허용 취소하면 이 인스턴스의 near-cache 에 남은 허용 상태도 지워진다.
+    @Test
+    void revocationFromAnotherInstanceClearsNearCache() {
+        allowedUserCache.put("default", "200", System.currentTimeMillis() + 60_000);
+        assertThat(allowed("200").allowed()).isTrue();
+
+        StepVerifier.create(queueEventBus.publishRevocation("default", List.of("200"))
+                        .then(Mono.fromCallable(() -> allowedUserCache.getAllowedUntil("default", "200") == null)
+                                .filter(Boolean::booleanValue)
+                                .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(20))))
+                        .timeout(Duration.ofSeconds(2)))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertThat(allowed("200").allowed()).isFalse();
+    }
+
+    // 공개 등록 API 는 lane 을 무시하고, 레인 등록은 내부 API 로만 할 수 있다.
+    @Test
+    void laneIsOnlyAcceptedFromInternalApi() {
+        webTestClient.post().uri("/api/v1/queue?user_id=100").exchange().expectStatus().isOk();
+        webTestClient.post().uri("/api/v1/queue?user_id=101&lane=vip").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.rank").isEqualTo(2);
+
+        webTestClient.post().uri("/api/v1/queue/lane?user_id=102&lane=vip").exchange()
+                .expectStatus().isUnauthorized();
+        webTestClient.post().uri("/api/v1/queue/lane?user_id=102&lane=vip").header(InternalApiFilter.API_KEY_HEADER, "internal-key").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.rank").isEqualTo(1);
+    }
+
+    // 내부 API 는 설정한 키를 X-Queue-Api-Key 헤더로 보내야 호출할 수 있다.
+    @Test
+    void recoverRequiresInternalApiKey() {
+        webTestClient.post().uri("/api/v1/queue/recover").exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.code").isEqualTo("UQ-0007");
+        webTestClient.post().uri("/api/v1/queue/recover").header(InternalApiFilter.API_KEY_HEADER, "wrong-key").exchange()
+                .expectStatus().isUnauthorized();
+
+        webTestClient.post().uri("/api/v1/queue/recover").header(InternalApiFilter.API_KEY_HEADER, "internal-key").exchange()
+                .expectStatus().isOk();
+    }
+
+    // 피드백은 내부 API 키가 있어야 하고, 큐 이름이 없는 피드백은 400 으로 거절한다.
+    @Test
+    void feedbackRequiresInternalApiKeyAndQueue() {
+        feedback(null, "{\"queue\":\"default\",\"latencyMillis\":100,\"errorRate\":0}").expectStatus().isUnauthorized();
+        feedback("internal-key", "{}").expectStatus().isBadRequest();
+        feedback("internal-key", "{\"queue\":\"default\",\"latencyMillis\":100,\"errorRate\":2}").expectStatus().isBadRequest();
+
+        feedback("internal-key", "{\"queue\":\"default\",\"latencyMillis\":100,\"errorRate\":0}").expectStatus().isAccepted();
+    }
+
+    private AllowedUserResponse allowed(String userId) {
+        return webTestClient.get().uri("/api/v1/queue/allowed?user_id=" + userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AllowedUserResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec feedback(String apiKey, String body) {
+        return webTestClient.post().uri("/api/v1/queue/feedback")
+                .headers(headers -> {
+                    if (apiKey != null) {
+                        headers.set(InternalApiFilter.API_KEY_HEADER, apiKey);
+                    }
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+}
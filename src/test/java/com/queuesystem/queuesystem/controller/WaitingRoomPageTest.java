@@ -0,0 +1,49 @@
+package com.queuesystem.queuesystem.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WaitingRoomPageTest {
+    private final WaitingRoomPage page = new WaitingRoomPage();
+
+    @Test
+    void rendersShellWithVersionedAssets() {
+        ResponseEntity<byte[]> response = page.render(MockServerHttpRequest.get("/waiting-room").build());
+
+        String html = new String(response.getBody(), StandardCharsets.UTF_8);
+        assertThat(html).containsPattern("/waiting-room/app\\.js\\?v=[0-9a-f]{32}");
+        assertThat(html).doesNotContain("{{");
+        assertThat(response.getHeaders().getETag()).isNotNull();
+    }
+
+    @Test
+    void returnsNotModifiedForMatchingEtagAndGzipWhenAccepted() {
+        String etag = page.render(MockServerHttpRequest.get("/waiting-room").build()).getHeaders().getETag();
+
+        assertThat(page.render(MockServerHttpRequest.get("/waiting-room").ifNoneMatch(etag).build()).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(page.render(MockServerHttpRequest.get("/waiting-room").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br").build())
+                .getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    // 압축 여부에 따라 본문이 다르므로 ETag 도 다르고, 다른 표현의 ETag 로는 304 가 되지 않는다.
+    @Test
+    void gzipResponseHasItsOwnEtag() {
+        String etag = page.render(MockServerHttpRequest.get("/waiting-room").build()).getHeaders().getETag();
+        String gzipEtag = page.render(MockServerHttpRequest.get("/waiting-room").header(HttpHeaders.ACCEPT_ENCODING, "gzip").build())
+                .getHeaders().getETag();
+
+        assertThat(gzipEtag).isNotEqualTo(etag).endsWith("-gz\"");
+        assertThat(page.render(MockServerHttpRequest.get("/waiting-room").header(HttpHeaders.ACCEPT_ENCODING, "gzip").ifNoneMatch(etag).build())
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.render(MockServerHttpRequest.get("/waiting-room").header(HttpHeaders.ACCEPT_ENCODING, "gzip").ifNoneMatch(gzipEtag).build())
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+}
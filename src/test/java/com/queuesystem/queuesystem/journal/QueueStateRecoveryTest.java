@@ -0,0 +1,125 @@
+package com.queuesystem.queuesystem.journal;
+
+import com.queuesystem.queuesystem.EmbeddedRedis;
+import com.queuesystem.queuesystem.dto.RecoveryResponse;
+import com.queuesystem.queuesystem.service.UserQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Redis 를 비운 뒤 스냅샷 + journal 로 대기열/진입 허용 상태가 돌아오는지 확인
+@SpringBootTest(properties = {"queue.journal.enabled=true", "queue.journal.recover-on-startup=false",
+        "queue.journal.replay-margin=0s"})
+@Import({EmbeddedRedis.class})
+@ActiveProfiles("test")
+class QueueStateRecoveryTest {
+
+    @Autowired
+    private QueueStateRecovery queueStateRecovery;
+
+    @Autowired
+    private QueueJournal queueJournal;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    private static Path directory;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        directory = Files.createTempDirectory("queue-journal");
+        registry.add("queue.journal.directory", directory::toString);
+    }
+
+    // 이전 테스트의 스냅샷이 남아 있으면 Redis 를 비운 것을 유실로 보고 그 스냅샷으로 복구하므로 함께 지운다.
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        Path snapshots = directory.resolve("snapshots");
+        if (Files.isDirectory(snapshots)) {
+            try (Stream<Path> files = Files.list(snapshots)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    void recoverFromSnapshotAndJournal() throws InterruptedException {
+        userQueueService.registerWaitQueue("default", "100").block();
+        userQueueService.registerWaitQueue("default", "101").block();
+        userQueueService.allowUser("default", 1L).block();
+        queueStateRecovery.snapshot(System.currentTimeMillis()).block();
+
+        // 스냅샷 이후 이벤트는 journal 에서 다시 적용된다.
+        userQueueService.registerWaitQueue("default", "102").block();
+        userQueueService.removeUserFromQueue("default", "101").block();
+        assertThat(queueJournal.awaitWritten(Duration.ofSeconds(5))).isTrue();
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+
+        StepVerifier.create(queueStateRecovery.recover().map(RecoveryResponse::waiting))
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertThat(userQueueService.getExactRank("default", "102").block()).isEqualTo(1L);
+        assertThat(userQueueService.isAllowed("default", "100").block()).isTrue();
+        assertThat(userQueueService.findActiveQueues().collectList().block()).containsExactly("default");
+    }
+
+    // 실행 중에 Redis 가 비워지면 다음 스냅샷 주기는 빈 상태를 남기는 대신 복구한다.
+    @Test
+    void snapshotRecoversWhenRedisIsLostWhileRunning() {
+        userQueueService.registerWaitQueue("lost", "200").block();
+        userQueueService.registerWaitQueue("lost", "201").block();
+        userQueueService.allowUser("lost", 1L).block();
+        queueStateRecovery.snapshot(System.currentTimeMillis()).block();
+
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        queueStateRecovery.snapshot(System.currentTimeMillis()).block();
+
+        assertThat(userQueueService.getExactRank("lost", "201").block()).isEqualTo(1L);
+        assertThat(userQueueService.isAllowed("lost", "200").block()).isTrue();
+
+        // 복구 후에는 다시 정상적으로 스냅샷을 남긴다.
+        queueStateRecovery.snapshot(System.currentTimeMillis()).block();
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        StepVerifier.create(queueStateRecovery.recover().map(RecoveryResponse::waiting))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    // 대기자가 모두 진입해서 활성 큐 목록에서 빠진 큐도 진입 허용 사용자는 스냅샷에 남는다.
+    @Test
+    void snapshotKeepsProceedingUsersOfInactiveQueue() {
+        userQueueService.registerWaitQueue("drained", "300").block();
+        userQueueService.allowUser("drained", 1L).block();
+        assertThat(userQueueService.deactivateIfEmpty("drained").block()).isTrue();
+        queueStateRecovery.snapshot(System.currentTimeMillis()).block();
+
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        StepVerifier.create(queueStateRecovery.recover().map(RecoveryResponse::proceeding))
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertThat(userQueueService.isAllowed("drained", "300").block()).isTrue();
+    }
+}
@@ -0,0 +1,92 @@
+package com.queuesystem.queuesystem.ratelimit;
+
+import com.queuesystem.queuesystem.EmbeddedRedis;
+import com.queuesystem.queuesystem.service.UserQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// heartbeat 의 사용자별 한도는 API 와 같이 JSON 본문의 userId 로 세므로 쿼리의 user_id 를 바꾸거나 userId 를 빼서 한도를 피할 수 없어야 한다.
+@SpringBootTest(properties = {
+        "queue.rate-limit.endpoints.heartbeat.per-user=2",
+        "queue.rate-limit.endpoints.heartbeat.per-ip=1000"})
+@AutoConfigureWebTestClient
+@Import({EmbeddedRedis.class})
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    @Test
+    void heartbeatIsLimitedPerUser() {
+        heartbeat("100").expectStatus().isOk();
+        heartbeat("100").expectStatus().isOk();
+
+        heartbeat("100").expectStatus().isEqualTo(429)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER)
+                .expectBody().jsonPath("$.code").isEqualTo("UQ-0005");
+        heartbeat("101").expectStatus().isOk();
+    }
+
+    // 본문은 그대로 API 까지 전달되어 heartbeat 가 갱신된다. (사용자별 카운터는 테스트 사이에 남으므로 다른 사용자를 쓴다.)
+    @Test
+    void heartbeatBodyReachesApi() {
+        userQueueService.registerWaitQueue("default", "300").block();
+        reactiveRedisTemplate.opsForZSet().add("user:queue:{default}:heartbeat", "300", 0).block();
+
+        heartbeat("300").expectStatus().isOk();
+
+        assertThat(reactiveRedisTemplate.opsForZSet().score("user:queue:{default}:heartbeat", "300").block()).isGreaterThan(0);
+    }
+
+    // 쿼리의 user_id 는 세지 않는다. (API 가 사용자를 정하는 본문과 다른 ID 로 한도를 피하지 못하게)
+    @Test
+    void heartbeatIsLimitedByBodyUserNotQuery() {
+        for (int i = 0; i < 2; i++) {
+            heartbeat("/api/v1/queue/heartbeat?user_id=" + i, "{\"queue\":\"default\",\"userId\":\"200\"}").expectStatus().isOk();
+        }
+        heartbeat("/api/v1/queue/heartbeat?user_id=other", "{\"queue\":\"default\",\"userId\":\"200\"}").expectStatus().isEqualTo(429);
+    }
+
+    @Test
+    void heartbeatWithoutUserIdIsRejected() {
+        for (int i = 0; i < 3; i++) {
+            heartbeat("/api/v1/queue/heartbeat?user_id=200", "{\"queue\":\"default\"}")
+                    .expectStatus().isBadRequest()
+                    .expectBody().jsonPath("$.code").isEqualTo("UQ-0006");
+        }
+    }
+
+    private WebTestClient.ResponseSpec heartbeat(String userId) {
+        return heartbeat("/api/v1/queue/heartbeat", "{\"queue\":\"default\",\"userId\":\"%s\"}".formatted(userId));
+    }
+
+    private WebTestClient.ResponseSpec heartbeat(String uri, String body) {
+        return webTestClient.post().uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+}
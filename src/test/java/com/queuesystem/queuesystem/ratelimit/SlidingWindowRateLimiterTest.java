@@ -0,0 +1,34 @@
+package com.queuesystem.queuesystem.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTest {
+    private static final long WINDOW_START = 100_000;
+
+    private final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(Duration.ofSeconds(10), 1000);
+
+    @Test
+    void rejectsOverLimitWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("user:1", 3, WINDOW_START)).isZero();
+        }
+
+        long retryAfter = limiter.tryAcquire("user:1", 3, WINDOW_START);
+        assertThat(retryAfter).isEqualTo(13_334);
+        assertThat(limiter.tryAcquire("user:2", 3, WINDOW_START)).isZero();
+    }
+
+    @Test
+    void previousWindowCountsUntilItSlidesOut() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("user:1", 3, WINDOW_START);
+        }
+
+        assertThat(limiter.tryAcquire("user:1", 3, WINDOW_START + 13_000)).isPositive();
+        assertThat(limiter.tryAcquire("user:1", 3, WINDOW_START + 13_334)).isZero();
+    }
+}
@@ -0,0 +1,65 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.EmbeddedRedis;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 다른 인스턴스가 lease 를 가진 상태(팔로워)에서 스케줄 작업이 어떻게 도는지 확인
+@SpringBootTest
+@Import({EmbeddedRedis.class})
+@ActiveProfiles("test")
+class AdmissionSchedulerTest {
+
+    @Autowired
+    private AdmissionScheduler admissionScheduler;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+        reactiveRedisTemplate.opsForValue().set("user:queue:scheduler:leader", "other", Duration.ofMinutes(1)).block();
+        leaderElection.release().block();
+    }
+
+    // 팔로워도 대기/진입 허용 인원 게이지를 갱신한다. (리더만 갱신하면 팔로워의 게이지가 멈춘다.)
+    @Test
+    void followerSamplesQueueDepth() {
+        assertThat(leaderElection.isLeader()).isFalse();
+        userQueueService.registerWaitQueue("sampled", "100").block();
+
+        admissionScheduler.scheduleSampleQueueDepth();
+
+        StepVerifier.create(Mono.fromCallable(() -> meterRegistry.find("queue.waiting").tag("queue", "sampled").gauge())
+                        .filter(gauge -> gauge.value() == 1)
+                        .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(50)))
+                        .map(Gauge::value))
+                .expectNext(1.0)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertThat(leaderElection.isLeader()).isFalse();
+    }
+}
@@ -0,0 +1,100 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.EmbeddedRedis;
+import com.queuesystem.queuesystem.dto.BulkAllowedResponse;
+import com.queuesystem.queuesystem.dto.BulkRegisterResponse;
+import com.queuesystem.queuesystem.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "queue.bulk.chunk-size=2")
+@Import({EmbeddedRedis.class})
+@ActiveProfiles("test")
+class BulkQueueServiceTest {
+
+    @Autowired
+    private BulkQueueService bulkQueueService;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private AllowedUserCache allowedUserCache;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    @Test
+    void bulkRegisterKeepsOrderAndReportsDuplicates() {
+        StepVerifier.create(bulkQueueService.registerWaitQueue("default", Flux.just("100", "101", "100", "102")))
+                .expectNext(BulkRegisterResponse.registered("100", 1L))
+                .expectNext(BulkRegisterResponse.registered("101", 2L))
+                .expectNext(BulkRegisterResponse.failed("100", ErrorCode.QUEUE_ALREADY_REGISTER_USER.getCode()))
+                .expectNext(BulkRegisterResponse.registered("102", 3L))
+                .verifyComplete();
+    }
+
+    // 같은 ms 에 등록돼도 사용자 ID 순서가 아닌 입력 순서대로 줄을 선다. (chunk 경계도 포함)
+    @Test
+    void bulkRegisterFollowsInputOrderNotLexicalOrder() {
+        StepVerifier.create(bulkQueueService.registerWaitQueue("default", Flux.just("200", "100", "150")))
+                .expectNext(BulkRegisterResponse.registered("200", 1L))
+                .expectNext(BulkRegisterResponse.registered("100", 2L))
+                .expectNext(BulkRegisterResponse.registered("150", 3L))
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("default", 2L))
+                .expectNext(List.of("200", "100"))
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkAllowed() {
+        StepVerifier.create(bulkQueueService.registerWaitQueue("default", Flux.just("100", "101", "102"))
+                        .thenMany(userQueueService.allowUser("default", 2L))
+                        .thenMany(bulkQueueService.isAllowed("default", Flux.just("100", "102", "999"))))
+                .expectNext(BulkAllowedResponse.of("100", true))
+                .expectNext(BulkAllowedResponse.of("102", false))
+                .expectNext(BulkAllowedResponse.of("999", false))
+                .verifyComplete();
+    }
+
+    // 같은 chunk 안에서 다시 나온 사용자도 중복 등록으로 처리한다.
+    @Test
+    void bulkRegisterReportsDuplicatesWithinChunk() {
+        StepVerifier.create(bulkQueueService.registerWaitQueue("default", Flux.just("100", "100")))
+                .expectNext(BulkRegisterResponse.registered("100", 1L))
+                .expectNext(BulkRegisterResponse.failed("100", ErrorCode.QUEUE_ALREADY_REGISTER_USER.getCode()))
+                .verifyComplete();
+    }
+
+    // near-cache 에 있는 사용자는 Redis 를 보지 않고 캐시로 답한다.
+    @Test
+    void bulkAllowedUsesNearCache() {
+        allowedUserCache.put("default", "300", System.currentTimeMillis() + 60_000);
+
+        StepVerifier.create(bulkQueueService.isAllowed("default", Flux.just("300", "301")))
+                .expectNext(BulkAllowedResponse.of("300", true))
+                .expectNext(BulkAllowedResponse.of("301", false))
+                .verifyComplete();
+
+        // Redis 에서 조회한 결과는 캐시에 남는다.
+        assertThat(allowedUserCache.getAllowedUntil("default", "301")).isZero();
+    }
+}
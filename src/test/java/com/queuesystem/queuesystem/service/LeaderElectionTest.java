@@ -0,0 +1,110 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.EmbeddedRedis;
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.utils.RedisScripts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 같은 Redis 를 바라보는 여러 인스턴스를 흉내 내서 리더가 하나만 선출되는지 확인
+// 컨텍스트의 LeaderElection 이 lease 를 가져가지 않도록 꺼두고, 테스트에서 인스턴스를 직접 만든다.
+@SpringBootTest(properties = "queue.leader.enabled=false")
+@Import({EmbeddedRedis.class})
+@ActiveProfiles("test")
+class LeaderElectionTest {
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @Autowired
+    private RedisScripts redisScripts;
+
+    private final QueueProperties queueProperties = new QueueProperties();
+
+    private List<LeaderElection> instances;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        instances = IntStream.range(0, 3)
+                .mapToObj(i -> new LeaderElection(reactiveRedisTemplate, redisScripts, queueProperties))
+                .toList();
+    }
+
+    @Test
+    void onlyOneInstanceBecomesLeader() {
+        StepVerifier.create(Flux.fromIterable(instances).flatMap(LeaderElection::tryAcquire).filter(acquired -> acquired).count())
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertThat(instances.stream().filter(LeaderElection::isLeader).count()).isEqualTo(1);
+    }
+
+    // fencing 시각은 Redis 시각 기준으로 lease 만료보다 앞에 있고, 리더가 아니면 이미 지난 시각이다.
+    @Test
+    void fenceEndsBeforeLeaseExpires() {
+        LeaderElection leader = instances.get(0);
+        leader.tryAcquire().block();
+        long now = System.currentTimeMillis();
+
+        assertThat(leader.getFenceUntil()).isGreaterThan(now)
+                .isLessThanOrEqualTo(now + queueProperties.getLeader().getLeaseTtl().toMillis());
+        assertThat(instances.get(1).getFenceUntil()).isLessThan(now);
+    }
+
+    @Test
+    void leaderKeepsLeaseOnRenewal() {
+        LeaderElection leader = instances.get(0);
+        StepVerifier.create(leader.tryAcquire().then(leader.tryAcquire()))
+                .expectNext(true)
+                .verifyComplete();
+
+        StepVerifier.create(instances.get(1).tryAcquire())
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void anotherInstanceTakesOverAfterRelease() {
+        LeaderElection leader = instances.get(0);
+        LeaderElection follower = instances.get(1);
+
+        StepVerifier.create(leader.tryAcquire()
+                        .then(follower.tryAcquire()))
+                .expectNext(false)
+                .verifyComplete();
+
+        StepVerifier.create(leader.release().then(follower.tryAcquire()))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertThat(leader.isLeader()).isFalse();
+        assertThat(follower.isLeader()).isTrue();
+    }
+
+    @Test
+    void anotherInstanceTakesOverAfterLeaseExpires() throws InterruptedException {
+        LeaderElection leader = instances.get(0);
+        LeaderElection follower = instances.get(1);
+        leader.tryAcquire().block();
+
+        Thread.sleep(queueProperties.getLeader().getLeaseTtl().toMillis() + 100);
+
+        StepVerifier.create(follower.tryAcquire())
+                .expectNext(true)
+                .verifyComplete();
+        assertThat(leader.isLeader()).isFalse();
+    }
+}
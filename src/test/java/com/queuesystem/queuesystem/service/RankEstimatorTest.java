@@ -0,0 +1,89 @@
+package com.queuesystem.queuesystem.service;
+
+import com.queuesystem.queuesystem.config.QueueProperties;
+import com.queuesystem.queuesystem.utils.QueueKeys;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankEstimatorTest {
+
+    @Test
+    void withoutDeparturesRankIsSequenceMinusAdmitted() {
+        RankEstimator.ShardProgress shard = new RankEstimator.ShardProgress(100, 1100, 1000);
+
+        assertThat(RankEstimator.localRank(600, shard)).isEqualTo(500L);
+        assertThat(RankEstimator.localRank(50, shard)).isLessThanOrEqualTo(0L);
+    }
+
+    // 등록 1100, 허용 100, 나간 사람 500 -> 남은 비율 1/2 만큼 줄어든다.
+    @Test
+    void departuresReduceRank() {
+        RankEstimator.ShardProgress shard = new RankEstimator.ShardProgress(100, 1100, 500);
+
+        assertThat(RankEstimator.localRank(600, shard)).isEqualTo(250L);
+        assertThat(RankEstimator.localRank(1100, shard)).isEqualTo(500L);
+    }
+
+    // 오차가 쌓이지 않고 대기 인원을 넘지 않는다.
+    @Test
+    void rankNeverExceedsWaitingUsers() {
+        RankEstimator.ShardProgress shard = new RankEstimator.ShardProgress(0, 1_000_000, 10);
+
+        assertThat(RankEstimator.localRank(1_000_000, shard)).isEqualTo(10L);
+        assertThat(RankEstimator.localRank(1, shard)).isEqualTo(1L);
+    }
+
+    @Test
+    void sequenceOfIsInverseOfLocalRank() {
+        RankEstimator.ShardProgress shard = new RankEstimator.ShardProgress(100, 1100, 500);
+
+        long sequence = RankEstimator.sequenceOf(250, shard);
+        assertThat(sequence).isEqualTo(600L);
+        assertThat(RankEstimator.localRank(sequence, shard)).isEqualTo(250L);
+    }
+
+    // exact 모드에서는 큐별 진행 상황도 등록 순번도 보관하지 않는다.
+    @Test
+    void exactModeTracksNothing() {
+        RankEstimator estimator = estimator(QueueProperties.Rank.Mode.EXACT, 10);
+
+        estimator.recordJoin("default", "100", 1);
+
+        assertThat(estimator.countTrackedQueues()).isZero();
+        assertThat(estimator.countCachedUsers()).isZero();
+        assertThat(estimator.expectedWaitSeconds("default", 10)).isNull();
+    }
+
+    // 큐 이름은 사용자 입력이므로 maxQueues 개를 넘는 큐는 추적하지 않는다.
+    @Test
+    void trackedQueuesAreCapped() {
+        RankEstimator estimator = estimator(QueueProperties.Rank.Mode.APPROXIMATE, 2);
+
+        for (int i = 0; i < 5; i++) {
+            estimator.recordJoin("queue-" + i, "100", 1);
+        }
+
+        assertThat(estimator.countTrackedQueues()).isEqualTo(2);
+        assertThat(estimator.countCachedUsers()).isEqualTo(2);
+    }
+
+    @Test
+    void forgetRemovesJoinSequence() {
+        RankEstimator estimator = estimator(QueueProperties.Rank.Mode.APPROXIMATE, 10);
+        estimator.recordJoin("default", "100", 1);
+        estimator.recordJoin("default", "101", 2);
+
+        estimator.forget("default", "100");
+        estimator.forget("default", "101");
+
+        assertThat(estimator.countCachedUsers()).isZero();
+    }
+
+    private static RankEstimator estimator(QueueProperties.Rank.Mode mode, int maxQueues) {
+        QueueProperties queueProperties = new QueueProperties();
+        queueProperties.getRank().setMode(mode);
+        queueProperties.getRank().setMaxQueues(maxQueues);
+        return new RankEstimator(null, new QueueKeys(queueProperties), queueProperties, null);
+    }
+}
@@ -7,13 +7,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.domain.Range;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
 
-@SpringBootTest
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+@SpringBootTest(properties = {"queue.sharding.queues.sharded=4", "queue.lease.timeout=200ms"})
 @Import({EmbeddedRedis.class})
 @ActiveProfiles("test")
 class UserQueueServiceTest {
@@ -26,8 +33,7 @@ class UserQueueServiceTest {
 
     @BeforeEach
     public void beforeEach() {
-        ReactiveRedisConnection redisConnection = reactiveRedisTemplate.getConnectionFactory().getReactiveConnection();
-        redisConnection.serverCommands().flushAll().subscribe();
+        reactiveRedisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
     }
 //
 //    @Test
@@ -139,4 +145,184 @@ class UserQueueServiceTest {
 //                .expectNext(-1L)
 //                .verifyComplete();
 //    }
-}
\ No newline at end of file
+
+    @Test
+    void allowUserReturnsAllowedUserIds() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .then(userQueueService.registerWaitQueue("default", "101"))
+                        .then(userQueueService.registerWaitQueue("default", "102"))
+                        .then(userQueueService.allowUser("default", 2L)))
+                .expectNext(List.of("100", "101"))
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.isAllowed("default", "101"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    // fencing 시각이 지난 뒤 도착한 진입 허용은 아무도 이동시키지 않는다.
+    @Test
+    void allowUserAfterFenceDoesNothing() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .then(userQueueService.allowUser("default", 1L, System.currentTimeMillis() - 1000)))
+                .expectNext(List.of())
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("default", 1L, System.currentTimeMillis() + 10_000))
+                .expectNext(List.of("100"))
+                .verifyComplete();
+    }
+
+    @Test
+    void heartbeatOnlyUpdatesRegisteredUser() {
+        StepVerifier.create(userQueueService.updateHeartbeat("default", "100"))
+                .expectNext(false)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .delayElement(Duration.ofMillis(5))
+                        .then(Mono.defer(() -> userQueueService.updateHeartbeat("default", "100"))))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void activeQueueRegistry() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .thenMany(userQueueService.findActiveQueues()))
+                .expectNext("default")
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("default", 1L)
+                        .then(userQueueService.deactivateIfEmpty("default"))
+                        .thenMany(userQueueService.findActiveQueues()))
+                .verifyComplete();
+    }
+
+    @Test
+    void shardedQueueAllowsInGlobalOrder() {
+        StepVerifier.create(Flux.range(0, 10)
+                        .concatMap(i -> userQueueService.registerWaitQueue("sharded", String.valueOf(i)).delayElement(Duration.ofMillis(2)))
+                        .then(userQueueService.allowUser("sharded", 3L)))
+                .assertNext(allowed -> assertThat(allowed).containsExactlyInAnyOrder("0", "1", "2"))
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.getRank("sharded", "5"))
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void laneUserIsQueuedAheadAndRequeueGoesToRetryLane() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .then(userQueueService.registerWaitQueue("default", "101"))
+                        .then(userQueueService.registerWaitQueue("default", "102", "vip")))
+                .expectNext(1L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("default", 1L)
+                        .then(userQueueService.requeueUser("default", "102"))
+                        .then(userQueueService.getRank("default", "102")))
+                .expectNext(1L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "103", "unknown"))
+                .expectError(ApplicationException.class)
+                .verify();
+    }
+
+    // 다시 줄 세우기에 실패하면 진입 허용 상태를 잃지 않는다.
+    @Test
+    void failedRequeueKeepsProceedState() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .then(userQueueService.allowUser("default", 1L))
+                        .then(userQueueService.registerWaitQueue("default", "100")))
+                .expectNext(1L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.requeueUser("default", "100"))
+                .expectError(ApplicationException.class)
+                .verify();
+
+        StepVerifier.create(userQueueService.isAllowed("default", "100"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void releaseFreesProceedSlot() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .then(userQueueService.allowUser("default", 1L))
+                        .then(userQueueService.releaseUser("default", "100")))
+                .expectNext(true)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.isAllowed("default", "100")
+                        .zipWith(userQueueService.countProceeding("default")))
+                .assertNext(state -> {
+                    assertThat(state.getT1()).isFalse();
+                    assertThat(state.getT2()).isZero();
+                })
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.releaseUser("default", "100"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void abandonedLeaseIsReclaimed() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", "100")
+                        .then(userQueueService.registerWaitQueue("default", "101"))
+                        .then(userQueueService.allowUser("default", 2L))
+                        .delayElement(Duration.ofMillis(300))
+                        .then(Mono.defer(() -> userQueueService.renewLease("default", "101")))
+                        .then(Mono.defer(() -> userQueueService.reclaimAbandoned("default"))))
+                .expectNext(1L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.isAllowed("default", "100")
+                        .zipWith(userQueueService.isAllowed("default", "101")))
+                .assertNext(allowed -> {
+                    assertThat(allowed.getT1()).isFalse();
+                    assertThat(allowed.getT2()).isTrue();
+                })
+                .verifyComplete();
+    }
+
+    // 진입 허용은 사용자별로 허용 시각 + proceedTtl 까지만 유효하다. (같은 키의 다른 사용자가 새로 허용돼도 늘어나지 않는다.)
+    @Test
+    void proceedExpiresPerUser() {
+        long now = System.currentTimeMillis();
+        reactiveRedisTemplate.opsForZSet().add("user:queue:{expiry}:proceed", "200", now - Duration.ofMinutes(11).toMillis()).block();
+        reactiveRedisTemplate.opsForZSet().add("user:queue:{expiry}:proceed", "201", now).block();
+
+        StepVerifier.create(userQueueService.isAllowed("expiry", "200")
+                        .zipWith(userQueueService.isAllowed("expiry", "201")))
+                .assertNext(allowed -> {
+                    assertThat(allowed.getT1()).isFalse();
+                    assertThat(allowed.getT2()).isTrue();
+                })
+                .verifyComplete();
+    }
+
+    // 진입 허용 때 만료된 사용자를 정리하고, 키 전체 만료는 마지막 허용 시점부터 proceedTtl 뒤로 다시 잡힌다.
+    @Test
+    void allowUserReapsExpiredProceedEntries() {
+        long expiredAt = System.currentTimeMillis() - Duration.ofMinutes(11).toMillis();
+        reactiveRedisTemplate.opsForZSet().add("user:queue:{reap}:proceed", "200", expiredAt).block();
+        reactiveRedisTemplate.opsForZSet().add("user:queue:{reap}:proceed", "201", expiredAt).block();
+
+        StepVerifier.create(userQueueService.registerWaitQueue("reap", "202")
+                        .then(userQueueService.allowUser("reap", 1L)))
+                .expectNext(List.of("202"))
+                .verifyComplete();
+
+        StepVerifier.create(reactiveRedisTemplate.opsForZSet().range("user:queue:{reap}:proceed", Range.unbounded()).collectList())
+                .expectNext(List.of("202"))
+                .verifyComplete();
+        StepVerifier.create(reactiveRedisTemplate.getExpire("user:queue:{reap}:proceed"))
+                .assertNext(ttl -> assertThat(ttl).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(10)))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,39 @@
+package com.queuesystem.queuesystem.service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairShareAllocatorTest {
+
+    @Test
+    void sharesBudgetByWeightAndRedistributesCappedShare() {
+        FairShareAllocator allocator = new FairShareAllocator();
+
+        Map<String, Long> allocations = allocator.allocate(100, List.of(
+                new FairShareAllocator.Demand("large", 500_000, 1000),
+                new FairShareAllocator.Demand("medium", 250_000, 1000),
+                new FairShareAllocator.Demand("capped", 250_000, 5)));
+
+        assertThat(allocations).containsEntry("capped", 5L);
+        assertThat(allocations.get("large") + allocations.get("medium")).isEqualTo(95L);
+        assertThat(allocations.get("large")).isBetween(63L, 64L);
+    }
+
+    @Test
+    void smallQueueIsNotStarved() {
+        FairShareAllocator allocator = new FairShareAllocator();
+        long small = 0;
+
+        for (int tick = 0; tick < 100; tick++) {
+            small += allocator.allocate(10, List.of(
+                    new FairShareAllocator.Demand("large", 100_000, 1000),
+                    new FairShareAllocator.Demand("small", 1_000, 1000))).get("small");
+        }
+
+        assertThat(small).isBetween(9L, 10L);
+    }
+}
@@ -0,0 +1,35 @@
+package com.queuesystem.queuesystem.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueueCountersTest {
+
+    @Test
+    void countsPerSecondAndMetric() {
+        QueueCounters counters = new QueueCounters(4, 100);
+
+        counters.add(QueueMetric.JOIN, 100, 1);
+        counters.add(QueueMetric.JOIN, 100, 2);
+        counters.add(QueueMetric.ADMIT, 100, 5);
+        counters.add(QueueMetric.JOIN, 101, 1);
+
+        assertThat(counters.get(QueueMetric.JOIN, 100)).isEqualTo(3);
+        assertThat(counters.get(QueueMetric.ADMIT, 100)).isEqualTo(5);
+        assertThat(counters.get(QueueMetric.JOIN, 101)).isEqualTo(1);
+        assertThat(counters.get(QueueMetric.LEAVE, 101)).isZero();
+    }
+
+    @Test
+    void reusesSlotWhenRingWrapsAround() {
+        QueueCounters counters = new QueueCounters(4, 100);
+
+        counters.add(QueueMetric.JOIN, 100, 3);
+        counters.add(QueueMetric.ADMIT, 104, 1);
+
+        assertThat(counters.get(QueueMetric.JOIN, 100)).isZero();
+        assertThat(counters.get(QueueMetric.JOIN, 104)).isZero();
+        assertThat(counters.get(QueueMetric.ADMIT, 104)).isEqualTo(1);
+    }
+}